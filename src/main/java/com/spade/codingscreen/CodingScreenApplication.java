@@ -1,5 +1,6 @@
 package com.spade.codingscreen;
 
+import com.spade.codingscreen.cli.BuildIndexCommand;
 import com.spade.codingscreen.cli.CheckMatchRateCommand;
 import com.spade.codingscreen.cli.LoadCsvCommand;
 import org.springframework.boot.CommandLineRunner;
@@ -21,7 +22,7 @@ public class CodingScreenApplication {
 
         // Disable web server for CLI commands (they don't need it)
         boolean isCliCommand = Arrays.stream(args)
-            .anyMatch(arg -> "--load-csv".equals(arg) || "--check-match-rate".equals(arg));
+            .anyMatch(arg -> "--load-csv".equals(arg) || "--build-index".equals(arg) || "--check-match-rate".equals(arg));
 
         if (isCliCommand) {
             app.setWebApplicationType(WebApplicationType.NONE);
@@ -31,12 +32,16 @@ public class CodingScreenApplication {
     }
 
     @Bean
-    public CommandLineRunner commandLineRunner(LoadCsvCommand loadCsvCommand, CheckMatchRateCommand checkMatchRateCommand) {
+    public CommandLineRunner commandLineRunner(LoadCsvCommand loadCsvCommand, BuildIndexCommand buildIndexCommand,
+                                               CheckMatchRateCommand checkMatchRateCommand) {
         return args -> {
             for (String arg : args) {
                 if ("--load-csv".equals(arg)) {
                     loadCsvCommand.run(args);
                     System.exit(0);
+                } else if ("--build-index".equals(arg)) {
+                    buildIndexCommand.run(args);
+                    System.exit(0);
                 } else if ("--check-match-rate".equals(arg)) {
                     checkMatchRateCommand.run(args);
                     System.exit(0);
@@ -0,0 +1,67 @@
+package com.spade.codingscreen.cli;
+
+import com.spade.codingscreen.matching.MatchIndex;
+import com.spade.codingscreen.matching.MatchIndexFile;
+import com.spade.codingscreen.matching.MatchIndexService;
+import com.spade.codingscreen.model.LoadGeneration;
+import com.spade.codingscreen.repository.LoadGenerationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+/**
+ * CLI command to build the match index from the database and write it as a {@link MatchIndexFile}.
+ * Servers started with {@code matching.index-file} pointing at the output map it instead of rebuilding.
+ * Re-run after {@code --load-csv} so the file reflects the loaded data; servers ignore a file stamped with
+ * another {@link LoadGeneration} than the database's and build from the database instead.
+ */
+@Component
+public class BuildIndexCommand {
+
+    private static final String DEFAULT_OUTPUT = "match-index.bin";
+
+    private final MatchIndexService matchIndexService;
+    private final LoadGenerationRepository loadGenerationRepository;
+    private final String configuredIndexFile;
+
+    public BuildIndexCommand(MatchIndexService matchIndexService, LoadGenerationRepository loadGenerationRepository,
+                             @Value("${matching.index-file:}") String configuredIndexFile) {
+        this.matchIndexService = matchIndexService;
+        this.loadGenerationRepository = loadGenerationRepository;
+        this.configuredIndexFile = configuredIndexFile;
+    }
+
+    public void run(String[] args) {
+        String output = configuredIndexFile.isBlank() ? DEFAULT_OUTPUT : configuredIndexFile;
+
+        // Parse arguments
+        for (int i = 0; i < args.length; i++) {
+            if ("--output".equals(args[i]) && i + 1 < args.length) {
+                output = args[++i];
+            }
+        }
+
+        try {
+            // Read before the build, so a load that starts meanwhile leaves the file stamped as stale
+            UUID generation = matchIndexService.loadGeneration();
+            if (generation == null) {
+                // Data loaded before generations were recorded
+                generation = loadGenerationRepository.save(LoadGeneration.next()).getGeneration();
+            }
+            MatchIndex index = matchIndexService.refresh();
+            Path path = Paths.get(output);
+            MatchIndexFile.write(index, generation, path);
+            System.out.printf("Wrote match index (format v%d): %d locations, %d corporations, %d bytes to %s%n",
+                MatchIndexFile.FORMAT_VERSION, index.getLocationCount(), index.getCorporationCount(),
+                Files.size(path), path);
+        } catch (IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -3,20 +3,34 @@ package com.spade.codingscreen.cli;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * CLI command to check the match rate of the solution endpoint.
  * Equivalent to Django's check_match_rate management command.
+ * <p>
+ * With {@code --jfr PATH} the server records a JFR recording of match events for the whole run through its
+ * {@code matchrecording} actuator endpoint, which is written to {@code PATH} at the end; {@code --slow-match-ms N}
+ * sets the slow-match event threshold for that recording. The endpoint has to be exposed on the server, and
+ * {@code --management-url} points at its management port when that differs from {@code --base-url}.
  */
 @Component
 public class CheckMatchRateCommand {
@@ -29,11 +43,26 @@ public class CheckMatchRateCommand {
 
     public void run(String[] args) {
         String baseUrl = "http://localhost:5000";
+        String managementUrl = null;
+        int loadRequests = 0;
+        int concurrency = 64;
+        Path jfrPath = null;
+        Long slowMatchMs = null;
 
         // Parse arguments
         for (int i = 0; i < args.length; i++) {
             if ("--base-url".equals(args[i]) && i + 1 < args.length) {
                 baseUrl = args[++i];
+            } else if ("--load-requests".equals(args[i]) && i + 1 < args.length) {
+                loadRequests = Integer.parseInt(args[++i]);
+            } else if ("--concurrency".equals(args[i]) && i + 1 < args.length) {
+                concurrency = Integer.parseInt(args[++i]);
+            } else if ("--management-url".equals(args[i]) && i + 1 < args.length) {
+                managementUrl = args[++i];
+            } else if ("--jfr".equals(args[i]) && i + 1 < args.length) {
+                jfrPath = Paths.get(args[++i]);
+            } else if ("--slow-match-ms".equals(args[i]) && i + 1 < args.length) {
+                slowMatchMs = Long.parseLong(args[++i]);
             }
         }
 
@@ -80,18 +109,27 @@ public class CheckMatchRateCommand {
         System.out.println("-".repeat(50));
 
         WebClient webClient = WebClient.create();
+        String recordingUrl = (managementUrl != null ? managementUrl : baseUrl) + "/actuator/matchrecording";
+        if (jfrPath != null) {
+            Map<String, Long> settings = slowMatchMs != null ? Map.of("slowMs", slowMatchMs) : Map.of();
+            try {
+                webClient.post().uri(recordingUrl)
+                    .header("Content-Type", "application/json")
+                    .bodyValue(settings)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+            } catch (Exception e) {
+                System.err.println("WARNING: Could not start JFR recording: " + e.getMessage());
+                jfrPath = null;
+            }
+        }
 
         for (int i = 0; i < testRequests.size(); i++) {
             Map<String, Object> requestData = testRequests.get(i);
             String requestId = (String) requestData.get("requestId");
             String merchantName = (String) requestData.get("merchantName");
-
-            Map<String, String> merchantData = new HashMap<>();
-            merchantData.put("merchantName", merchantName);
-            merchantData.put("address", (String) requestData.get("address"));
-            merchantData.put("city", (String) requestData.get("city"));
-            merchantData.put("region", (String) requestData.get("region"));
-            merchantData.put("postalCode", (String) requestData.get("postalCode"));
+            Map<String, String> merchantData = toPayload(requestData);
 
             try {
                 JsonNode response = webClient.post()
@@ -167,6 +205,89 @@ public class CheckMatchRateCommand {
         } else {
             System.err.println("No requests to process");
         }
+
+        if (loadRequests > 0 && totalRequests > 0) {
+            runLoad(solutionUrl, testRequests, loadRequests, concurrency);
+        }
+
+        if (jfrPath != null) {
+            dumpRecording(webClient, recordingUrl, jfrPath);
+        }
+    }
+
+    /**
+     * Stops the server's recording and streams it into {@code path}.
+     */
+    private static void dumpRecording(WebClient webClient, String recordingUrl, Path path) {
+        try {
+            Flux<DataBuffer> recording = webClient.delete().uri(recordingUrl).retrieve().bodyToFlux(DataBuffer.class);
+            DataBufferUtils.write(recording, path).block();
+            System.out.println("JFR recording written to " + path + " (" + Files.size(path) + " bytes)");
+        } catch (Exception e) {
+            System.err.println("ERROR: Could not dump JFR recording: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, String> toPayload(Map<String, Object> requestData) {
+        Map<String, String> merchantData = new HashMap<>();
+        merchantData.put("merchantName", (String) requestData.get("merchantName"));
+        merchantData.put("address", (String) requestData.get("address"));
+        merchantData.put("city", (String) requestData.get("city"));
+        merchantData.put("region", (String) requestData.get("region"));
+        merchantData.put("postalCode", (String) requestData.get("postalCode"));
+        return merchantData;
+    }
+
+    /**
+     * Replays the test requests round-robin with a fixed number in flight and reports throughput and
+     * latency percentiles. Used to compare server threading modes (e.g. the virtual-threads profile).
+     */
+    private void runLoad(String solutionUrl, List<Map<String, Object>> testRequests, int total, int concurrency) {
+        List<Map<String, String>> payloads = testRequests.stream().map(CheckMatchRateCommand::toPayload).toList();
+        ConnectionProvider connections = ConnectionProvider.builder("load")
+            .maxConnections(concurrency)
+            .pendingAcquireMaxCount(-1)
+            .build();
+        WebClient webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+            .build();
+
+        System.out.println();
+        System.out.println("Load: " + total + " requests, " + concurrency + " in flight");
+        System.out.println("-".repeat(50));
+
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        Flux.range(0, total)
+            .flatMap(i -> Mono.defer(() -> {
+                long sent = System.nanoTime();
+                return webClient.post()
+                    .uri(solutionUrl)
+                    .header("Content-Type", "application/json")
+                    .bodyValue(payloads.get(i % payloads.size()))
+                    .exchangeToMono(response -> response.releaseBody())
+                    .doOnTerminate(() -> latencies[i] = System.nanoTime() - sent)
+                    .onErrorResume(e -> {
+                        errors.incrementAndGet();
+                        return Mono.empty();
+                    });
+            }), concurrency)
+            .blockLast();
+        long elapsed = System.nanoTime() - start;
+        connections.dispose();
+
+        Arrays.sort(latencies);
+        System.out.printf("Throughput: %.0f req/s%n", total / (elapsed / 1e9));
+        System.out.printf("Latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n",
+            percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+            latencies[total - 1] / 1e6);
+        System.out.println("Errors: " + errors.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
     }
 }
 
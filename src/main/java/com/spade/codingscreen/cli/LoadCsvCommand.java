@@ -2,49 +2,156 @@ package com.spade.codingscreen.cli;
 
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
+import com.spade.codingscreen.matching.CorporationAliasDictionary;
+import com.spade.codingscreen.matching.CorporationAliasDictionary.Kind;
+import com.spade.codingscreen.matching.StageTimers;
+import com.spade.codingscreen.matching.StringDictionary;
 import com.spade.codingscreen.model.Corporation;
 import com.spade.codingscreen.model.Countries;
+import com.spade.codingscreen.model.LoadGeneration;
 import com.spade.codingscreen.model.Location;
 import com.spade.codingscreen.repository.CorporationRepository;
+import com.spade.codingscreen.repository.LoadGenerationRepository;
 import com.spade.codingscreen.repository.LocationRepository;
+import com.spade.codingscreen.repository.LocationRepository.NaturalKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * CLI command to load corporations and locations from CSV files.
  * Equivalent to Django's load_csv management command.
+ * <p>
+ * Rows are read in chunks of {@code loader.chunk-size} and each chunk is written in its own transaction:
+ * new entities are persisted, updates are picked up by dirty checking, and the chunk is flushed as JDBC
+ * batches ({@code hibernate.jdbc.batch_size}) before the persistence context is cleared. A dry run rolls
+ * every chunk back. A real load first records a new {@link LoadGeneration}, so index files built before it,
+ * even from a load that later fails, are recognized as stale.
+ * <p>
+ * The locations file, the large one, runs as a pipeline: a reader thread splits it into chunks,
+ * {@code loader.parser-threads} workers parse them in parallel, and the calling thread is the single writer,
+ * as SQLite allows one writer at a time. At most {@code loader.queue-capacity} parsed or parsing chunks wait
+ * for the writer, which bounds memory, and chunks are written in file order.
+ * <p>
+ * Each row's time is split into {@link Phase phases}, recorded on {@code load.phase} timers and summed
+ * into the final summary line; chunk reads count as parse and chunk flushes as the chunk's write phase.
+ * Parse time is summed across the parser workers, so it can exceed the elapsed time.
  */
 @Component
 public class LoadCsvCommand {
 
+    /**
+     * Per-row phase of a load, used for the {@code phase} metrics tag.
+     */
+    enum Phase {
+        PARSE("parse"),
+        CORPORATION_RESOLUTION("corporation_resolution"),
+        LOCATION_UPSERT("location_upsert");
+
+        private final String tagValue;
+
+        Phase(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    // Ids per prefetch query, well under SQLite's bound-parameter limit
+    private static final int PREFETCH_BATCH = 500;
+    private static final Future<List<LocationRow>> END_OF_FILE = CompletableFuture.completedFuture(List.of());
+
     private final CorporationRepository corporationRepository;
     private final LocationRepository locationRepository;
+    private final LoadGenerationRepository loadGenerationRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int parserThreads;
+    private final int queueCapacity;
+    private final Timer[] phaseTimers = new Timer[Phase.values().length];
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
 
     private Map<UUID, Corporation> externalIdToCorp = new HashMap<>();
+    private final Map<UUID, Corporation> corporationsById = new HashMap<>();
+    private final Map<String, Corporation> createdAliases = new HashMap<>();
+    private CorporationAliasDictionary aliases = CorporationAliasDictionary.EMPTY;
+    // Canonical city, state, DBA and website cells, so entities share one String per distinct value; ids and
+    // countries are parsed straight into UUIDs and enum constants, so interning those cells would save nothing
+    private final StringDictionary repeatedValues = new StringDictionary();
+    // Location ids by corporation id, then store id or name|city|state: read once per run and kept current as
+    // rows are written, replacing the per-row findByStoreIdAndCorporation/findByNameAndCityAndState... queries
+    private final Map<UUID, Map<String, UUID>> locationsByStoreId = new HashMap<>();
+    private final Map<UUID, Map<String, UUID>> locationsByName = new HashMap<>();
+    // Every stored location id, so a row reusing one updates that location instead of inserting it again
+    private final Set<UUID> knownLocationIds = new HashSet<>();
     private int createdCorps = 0;
     private int updatedCorps = 0;
     private int createdLocs = 0;
     private int updatedLocs = 0;
 
-    public LoadCsvCommand(CorporationRepository corporationRepository, LocationRepository locationRepository) {
+    public LoadCsvCommand(CorporationRepository corporationRepository, LocationRepository locationRepository,
+                          LoadGenerationRepository loadGenerationRepository, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry, @Value("${loader.chunk-size:5000}") int chunkSize,
+                          @Value("${loader.parser-threads:2}") int parserThreads,
+                          @Value("${loader.queue-capacity:4}") int queueCapacity) {
         this.corporationRepository = corporationRepository;
         this.locationRepository = locationRepository;
+        this.loadGenerationRepository = loadGenerationRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.parserThreads = Math.max(1, parserThreads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        for (Phase phase : Phase.values()) {
+            phaseTimers[phase.ordinal()] = StageTimers.latencyTimer("load.phase",
+                    "Time spent in each load phase, per CSV row or per chunk read and flush")
+                .tag("phase", phase.tagValue)
+                .register(meterRegistry);
+        }
     }
 
     public void run(String[] args) {
         // Reset state from any previous runs (singleton can be invoked multiple times)
         externalIdToCorp.clear();
+        corporationsById.clear();
+        createdAliases.clear();
+        repeatedValues.clear();
+        locationsByStoreId.clear();
+        locationsByName.clear();
+        knownLocationIds.clear();
+        for (Phase phase : Phase.values()) {
+            phaseNanos.set(phase.ordinal(), 0);
+        }
         createdCorps = 0;
         updatedCorps = 0;
         createdLocs = 0;
@@ -81,8 +188,21 @@ public class LoadCsvCommand {
         }
 
         try {
+            if (!dryRun) {
+                loadGenerationRepository.save(LoadGeneration.next());
+            }
+            for (Corporation corp : corporationRepository.findAll()) {
+                corporationsById.put(corp.getId(), corp);
+            }
+            compileAliases();
+
             if (Files.exists(corpPath)) {
                 loadCorporations(corpPath, dryRun);
+                compileAliases();
+            }
+            for (NaturalKey key : locationRepository.findAllNaturalKeys()) {
+                knownLocationIds.add(key.id());
+                indexLocation(key.id(), key.corporationId(), key.storeId(), key.name(), key.city(), key.state());
             }
             loadLocations(locPath, createMissingCorps, dryRun);
 
@@ -91,14 +211,18 @@ public class LoadCsvCommand {
                 createdCorps, updatedCorps, createdLocs, updatedLocs
             );
             System.out.println(summary);
+            System.out.printf("Phases: parse %d ms, corporation resolution %d ms, location upsert %d ms.%n",
+                phaseMillis(Phase.PARSE), phaseMillis(Phase.CORPORATION_RESOLUTION), phaseMillis(Phase.LOCATION_UPSERT));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("ERROR: Load interrupted");
         } catch (Exception e) {
             System.err.println("ERROR: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    @Transactional
-    public void loadCorporations(Path csvPath, boolean dryRun) throws IOException, CsvValidationException {
+    private void loadCorporations(Path csvPath, boolean dryRun) throws IOException, CsvValidationException {
         try (CSVReader reader = new CSVReader(new FileReader(csvPath.toFile()))) {
             String[] headers = reader.readNext();
             if (headers == null) return;
@@ -116,46 +240,57 @@ public class LoadCsvCommand {
             int dbaIdx = headerList.indexOf("doing_business_as");
             int websiteIdx = headerList.indexOf("website");
 
-            String[] row;
-            while ((row = reader.readNext()) != null) {
-                String corpIdStr = getOrNull(row, corpIdIdx);
-                if (corpIdStr == null) {
-                    System.out.println("WARNING: Skipping corporation row with missing ID");
-                    continue;
-                }
-                UUID extId = UUID.fromString(corpIdStr);
-                String legalName = getOrNull(row, legalNameIdx);
-                String dba = getOrNull(row, dbaIdx);
-                String website = getOrNull(row, websiteIdx);
-
-                // Match priority: website, dba, legal_name
-                Corporation corp = null;
-                if (website != null) {
-                    corp = corporationRepository.findByWebsite(website).orElse(null);
-                }
-                if (corp == null && dba != null) {
-                    corp = corporationRepository.findByDoingBusinessAs(dba).orElse(null);
-                }
-                if (corp == null && legalName != null) {
-                    corp = corporationRepository.findByLegalName(legalName).orElse(null);
-                }
-
-                if (corp == null) {
-                    corp = new Corporation(extId, legalName, dba, website);
-                    if (!dryRun) {
-                        corporationRepository.save(corp);
+            List<String[]> chunk;
+            while (!(chunk = readChunk(reader)).isEmpty()) {
+                List<String[]> rows = chunk;
+                writeChunk(dryRun, Phase.CORPORATION_RESOLUTION, () -> {
+                    for (String[] row : rows) {
+                        long start = System.nanoTime();
+                        String corpIdStr = getOrNull(row, corpIdIdx);
+                        if (corpIdStr == null) {
+                            System.out.println("WARNING: Skipping corporation row with missing ID");
+                            continue;
+                        }
+                        UUID extId = UUID.fromString(corpIdStr);
+                        String legalName = getOrNull(row, legalNameIdx);
+                        String dba = getOrNull(row, dbaIdx);
+                        String website = getOrNull(row, websiteIdx);
+                        long parsed = System.nanoTime();
+                        recordPhase(Phase.PARSE, parsed - start);
+
+                        // Match priority: website, dba, legal_name
+                        Corporation corp = findCorporation(Kind.WEBSITE, website);
+                        if (corp == null) {
+                            corp = findCorporation(Kind.DOING_BUSINESS_AS, dba);
+                        }
+                        if (corp == null) {
+                            corp = findCorporation(Kind.LEGAL_NAME, legalName);
+                        }
+                        if (corp == null && corporationsById.containsKey(extId)) {
+                            // Stored under aliases that all changed; persisting the id again would collide
+                            corp = updateCorporation(extId, legalName, dba, website, dryRun);
+                        }
+
+                        if (corp == null) {
+                            corp = new Corporation(extId, legalName, dba, website);
+                            if (!dryRun) {
+                                entityManager.persist(corp);
+                                rememberCreated(corp);
+                            }
+                            createdCorps++;
+                        }
+
+                        // Track mapping from external id to the resolved corp
+                        externalIdToCorp.put(extId, corp);
+                        recordPhase(Phase.CORPORATION_RESOLUTION, System.nanoTime() - parsed);
                     }
-                    createdCorps++;
-                }
-
-                // Track mapping from external id to the resolved corp
-                externalIdToCorp.put(extId, corp);
+                });
             }
         }
     }
 
-    @Transactional
-    public void loadLocations(Path csvPath, boolean createMissingCorps, boolean dryRun) throws IOException, CsvValidationException {
+    private void loadLocations(Path csvPath, boolean createMissingCorps, boolean dryRun)
+            throws IOException, CsvValidationException, InterruptedException {
         try (CSVReader reader = new CSVReader(new FileReader(csvPath.toFile()))) {
             String[] headers = reader.readNext();
             if (headers == null) return;
@@ -174,109 +309,470 @@ public class LoadCsvCommand {
                 return;
             }
 
-            String[] row;
-            while ((row = reader.readNext()) != null) {
-                String corpIdStr = getValueByHeader(row, headerList, "corporation_id");
-                UUID corpId = (corpIdStr != null) ? UUID.fromString(corpIdStr) : null;
-                String dba = getValueByHeader(row, headerList, "doing_business_as");
-                String website = getValueByHeader(row, headerList, "website");
-                String locName = getValueByHeader(row, headerList, "name");
-
-                // Resolve corporation
-                Corporation corp = null;
-                if (corpId != null) {
-                    corp = externalIdToCorp.get(corpId);
-                }
-                if (corp == null && website != null) {
-                    corp = corporationRepository.findByWebsite(website).orElse(null);
+            LocationColumns columns = LocationColumns.of(headerList);
+
+            // Reader thread -> parser workers -> this thread, the single writer. Chunk futures are queued in file
+            // order and taken in that order whichever worker finishes first, so a later row still updates the
+            // location an earlier row created; the bounded queue stops the reader once it is queueCapacity
+            // chunks ahead of the writer.
+            BlockingQueue<Future<List<LocationRow>>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+            ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, loaderThreads("csv-parser-"));
+            Thread readerThread = loaderThreads("csv-reader-")
+                .newThread(() -> readLocations(reader, columns, parsers, parsed));
+            readerThread.start();
+            try {
+                Future<List<LocationRow>> next;
+                while ((next = parsed.take()) != END_OF_FILE) {
+                    List<LocationRow> rows = await(next);
+                    writeChunk(dryRun, Phase.LOCATION_UPSERT, () -> {
+                        List<Resolution> resolutions = resolveChunk(rows, dryRun);
+                        // Once a row creates a corporation or moves a location's keys, later rows resolve afresh
+                        boolean stale = false;
+                        for (int i = 0; i < rows.size(); i++) {
+                            stale |= upsertLocation(rows.get(i), stale ? null : resolutions.get(i),
+                                createMissingCorps, dryRun);
+                        }
+                    });
                 }
-                if (corp == null && dba != null) {
-                    corp = corporationRepository.findByDoingBusinessAs(dba).orElse(null);
-                }
-                if (corp == null && locName != null) {
-                    corp = corporationRepository.findByDoingBusinessAs(locName).orElse(null);
-                }
-                if (corp == null && locName != null) {
-                    corp = corporationRepository.findByLegalName(locName).orElse(null);
+            } finally {
+                // Releases the reader and workers when a chunk failed to read, parse or write
+                readerThread.interrupt();
+                parsers.shutdownNow();
+                readerThread.join();
+            }
+        }
+    }
+
+    /**
+     * Reader stage: splits the file into chunks and hands each to a parser worker, queueing the pending result
+     * in file order. A read failure is queued in place of the chunk, so the writer stops at that point.
+     */
+    private void readLocations(CSVReader reader, LocationColumns columns, ExecutorService parsers,
+                               BlockingQueue<Future<List<LocationRow>>> parsed) {
+        try {
+            try {
+                List<String[]> chunk;
+                while (!(chunk = readChunk(reader)).isEmpty()) {
+                    List<String[]> rows = chunk;
+                    parsed.put(parsers.submit(() -> parseLocations(rows, columns)));
                 }
+                parsed.put(END_OF_FILE);
+            } catch (IOException | CsvValidationException | RuntimeException e) {
+                parsed.put(CompletableFuture.failedFuture(e));
+            }
+        } catch (InterruptedException e) {
+            // The writer has stopped and no longer drains the queue
+        }
+    }
 
-                if (corp == null && createMissingCorps) {
+    /**
+     * Parser stage: trims cells and converts ids, coordinates and country, without touching shared state.
+     */
+    private List<LocationRow> parseLocations(List<String[]> chunk, LocationColumns columns) {
+        List<LocationRow> rows = new ArrayList<>(chunk.size());
+        for (String[] row : chunk) {
+            long start = System.nanoTime();
+            String corpIdStr = getOrNull(row, columns.corporationId());
+            String city = getOrNull(row, columns.city());
+            if (city == null) {
+                city = getOrNull(row, columns.city1());
+            }
+            rows.add(new LocationRow(
+                corpIdStr != null ? UUID.fromString(corpIdStr) : null,
+                getOrNull(row, columns.doingBusinessAs()),
+                getOrNull(row, columns.website()),
+                getOrNull(row, columns.id()),
+                getOrNull(row, columns.name()),
+                getOrNull(row, columns.streetAddress()),
+                getOrNull(row, columns.addressLine1()),
+                getOrNull(row, columns.addressLine2()),
+                city,
+                getOrNull(row, columns.state()),
+                parseCountry(getOrNull(row, columns.country())),
+                getOrNull(row, columns.postalCode()),
+                getOrNull(row, columns.storeId()),
+                parseDouble(getOrNull(row, columns.lat())),
+                parseDouble(getOrNull(row, columns.lon())),
+                getOrNull(row, columns.h3Cell())));
+            recordPhase(Phase.PARSE, System.nanoTime() - start);
+        }
+        return rows;
+    }
+
+    /**
+     * Writer stage, per row: creates or updates the location, using the row's {@link #resolveChunk resolution}
+     * when given and resolving the corporation and stored location itself otherwise. Only the writer thread
+     * touches the entity manager, the key maps and the counters.
+     *
+     * @return true if the row created a corporation or moved a location to other keys, which can change how
+     *         later rows resolve
+     */
+    private boolean upsertLocation(LocationRow row, Resolution resolution, boolean createMissingCorps,
+                                   boolean dryRun) {
+        long start = System.nanoTime();
+        boolean resolutionChanged = false;
+        UUID corpId = row.corporationId();
+        String dba = repeatedValues.intern(row.doingBusinessAs());
+        String website = repeatedValues.intern(row.website());
+        String locName = row.name();
+        String locIdStr = row.id();
+        String city = repeatedValues.intern(row.city());
+        String state = repeatedValues.intern(row.state());
+        String storeId = row.storeId();
+
+        Corporation corp;
+        if (resolution != null) {
+            corp = resolution.corporation();
+        } else {
+            corp = resolveCorporation(corpId, dba, website, locName);
+            if (corp == null && createMissingCorps) {
+                // A stored corporation whose aliases did not match is reused rather than persisted again
+                corp = corpId == null ? null : corporationsById.get(corpId);
+                if (corp == null) {
                     corp = new Corporation(corpId, null, dba != null ? dba : locName, website);
                     if (!dryRun) {
-                        corporationRepository.save(corp);
+                        entityManager.persist(corp);
+                        rememberCreated(corp);
+                        resolutionChanged = true;
                     }
                 }
+            }
+        }
 
-                if (corp == null) {
-                    System.out.println("WARNING: Skipping location without resolvable corporation: " +
-                        getValueByHeader(row, headerList, "id") + " (" + locName + ")");
-                    continue;
-                }
+        long resolved = System.nanoTime();
+        if (resolution == null) {
+            recordPhase(Phase.CORPORATION_RESOLUTION, resolved - start);
+        }
 
-                // Build location
-                String locIdStr = getValueByHeader(row, headerList, "id");
-                if (locIdStr == null) {
-                    System.out.println("WARNING: Skipping location row with missing ID");
-                    continue;
-                }
-                UUID locId = UUID.fromString(locIdStr);
-                String streetAddress = getValueByHeader(row, headerList, "street_address");
-                String addressLine1 = getValueByHeader(row, headerList, "address_line_1");
-                String addressLine2 = getValueByHeader(row, headerList, "address_line_2");
-                String city = getValueByHeader(row, headerList, "city");
-                if (city == null) {
-                    city = getValueByHeader(row, headerList, "city1");
-                }
-                String state = getValueByHeader(row, headerList, "state");
-                String countryStr = getValueByHeader(row, headerList, "country");
-                Countries country = parseCountry(countryStr);
-                String postalCode = getValueByHeader(row, headerList, "postal_code");
-                String storeId = getValueByHeader(row, headerList, "store_id");
-                Double lat = parseDouble(getValueByHeader(row, headerList, "lat"));
-                Double lon = parseDouble(getValueByHeader(row, headerList, "lon"));
-                String h3Cell = getValueByHeader(row, headerList, "h3_cell");
-
-                // Check for existing location
-                Location existing = null;
-                if (storeId != null && !storeId.isEmpty()) {
-                    existing = locationRepository.findByStoreIdAndCorporation(storeId, corp).orElse(null);
-                }
-                if (existing == null) {
-                    existing = locationRepository.findByNameAndCityAndStateAndCorporation(locName, city, state, corp).orElse(null);
-                }
+        if (corp == null) {
+            System.out.println("WARNING: Skipping location without resolvable corporation: " +
+                locIdStr + " (" + locName + ")");
+            return resolutionChanged;
+        }
 
-                if (existing == null) {
-                    Location location = new Location(locId, locName, streetAddress, addressLine1, addressLine2,
-                        city, state, country, postalCode, storeId, lat, lon, h3Cell, corp);
-                    if (!dryRun) {
-                        locationRepository.save(location);
-                    }
-                    createdLocs++;
-                } else {
-                    // Update existing
-                    boolean changed = false;
-                    if (!equals(existing.getName(), locName)) { existing.setName(locName); changed = true; }
-                    if (!equals(existing.getStreetAddress(), streetAddress)) { existing.setStreetAddress(streetAddress); changed = true; }
-                    if (!equals(existing.getAddressLine1(), addressLine1)) { existing.setAddressLine1(addressLine1); changed = true; }
-                    if (!equals(existing.getAddressLine2(), addressLine2)) { existing.setAddressLine2(addressLine2); changed = true; }
-                    if (!equals(existing.getCity(), city)) { existing.setCity(city); changed = true; }
-                    if (!equals(existing.getState(), state)) { existing.setState(state); changed = true; }
-                    if (existing.getCountry() != country) { existing.setCountry(country); changed = true; }
-                    if (!equals(existing.getPostalCode(), postalCode)) { existing.setPostalCode(postalCode); changed = true; }
-                    if (!equals(existing.getStoreId(), storeId)) { existing.setStoreId(storeId); changed = true; }
-                    if (!equals(existing.getLat(), lat)) { existing.setLat(lat); changed = true; }
-                    if (!equals(existing.getLon(), lon)) { existing.setLon(lon); changed = true; }
-                    if (!equals(existing.getH3Cell(), h3Cell)) { existing.setH3Cell(h3Cell); changed = true; }
-
-                    if (changed && !dryRun) {
-                        locationRepository.save(existing);
-                        updatedLocs++;
-                    } else if (changed) {
-                        updatedLocs++;
-                    }
+        // Build location
+        if (locIdStr == null) {
+            System.out.println("WARNING: Skipping location row with missing ID");
+            return resolutionChanged;
+        }
+        UUID locId = UUID.fromString(locIdStr);
+
+        // Check for existing location
+        UUID existingId = resolution != null
+            ? resolution.existingId()
+            : existingLocationId(corp.getId(), locId, storeId, locName, city, state, null);
+        // Answered from the persistence context: prefetched for the chunk, or written earlier in it
+        Location existing = existingId == null ? null : entityManager.find(Location.class, existingId);
+
+        if (existing == null) {
+            // A reference keeps persist from looking up a corporation detached by an earlier chunk
+            Location location = new Location(locId, locName, row.streetAddress(), row.addressLine1(),
+                row.addressLine2(), city, state, row.country(), row.postalCode(), storeId, row.lat(), row.lon(),
+                row.h3Cell(), entityManager.getReference(Corporation.class, corp.getId()));
+            if (!dryRun) {
+                entityManager.persist(location);
+                knownLocationIds.add(locId);
+                indexLocation(locId, corp.getId(), storeId, locName, city, state);
+            }
+            createdLocs++;
+        } else {
+            // Update existing; the managed entity is written by dirty checking at flush
+            String oldStoreId = existing.getStoreId();
+            String oldNameKey = nameKey(existing.getName(), existing.getCity(), existing.getState());
+            UUID oldCorporationId = existing.getCorporation() == null ? null : existing.getCorporation().getId();
+            boolean changed = false;
+            if (!equals(oldCorporationId, corp.getId())) {
+                existing.setCorporation(entityManager.getReference(Corporation.class, corp.getId()));
+                changed = true;
+            }
+            if (!equals(existing.getName(), locName)) { existing.setName(locName); changed = true; }
+            if (!equals(existing.getStreetAddress(), row.streetAddress())) { existing.setStreetAddress(row.streetAddress()); changed = true; }
+            if (!equals(existing.getAddressLine1(), row.addressLine1())) { existing.setAddressLine1(row.addressLine1()); changed = true; }
+            if (!equals(existing.getAddressLine2(), row.addressLine2())) { existing.setAddressLine2(row.addressLine2()); changed = true; }
+            if (!equals(existing.getCity(), city)) { existing.setCity(city); changed = true; }
+            if (!equals(existing.getState(), state)) { existing.setState(state); changed = true; }
+            if (existing.getCountry() != row.country()) { existing.setCountry(row.country()); changed = true; }
+            if (!equals(existing.getPostalCode(), row.postalCode())) { existing.setPostalCode(row.postalCode()); changed = true; }
+            if (!equals(existing.getStoreId(), storeId)) { existing.setStoreId(storeId); changed = true; }
+            if (!equals(existing.getLat(), row.lat())) { existing.setLat(row.lat()); changed = true; }
+            if (!equals(existing.getLon(), row.lon())) { existing.setLon(row.lon()); changed = true; }
+            if (!equals(existing.getH3Cell(), row.h3Cell())) { existing.setH3Cell(row.h3Cell()); changed = true; }
+
+            if (changed && !dryRun) {
+                unindexLocation(existing.getId(), oldCorporationId, oldStoreId, oldNameKey);
+                indexLocation(existing.getId(), corp.getId(), storeId, locName, city, state);
+                resolutionChanged = !equals(oldCorporationId, corp.getId()) || !equals(oldStoreId, storeId)
+                    || !oldNameKey.equals(nameKey(locName, city, state));
+            }
+            if (changed) {
+                updatedLocs++;
+            }
+        }
+        recordPhase(Phase.LOCATION_UPSERT, System.nanoTime() - resolved);
+        return resolutionChanged;
+    }
+
+    /**
+     * Resolves each row of a chunk once, to its corporation and the id of the location it updates, then loads
+     * the stored ones {@link #PREFETCH_BATCH} ids per {@code WHERE id IN (...)} query, so the writer neither
+     * resolves rows again nor finds locations one query at a time. Rows the chunk will insert are tracked as
+     * it goes, so a later row of the chunk resolves to them as it would once they are written. A row without
+     * a corporation or an id gets a null resolution and is left to the writer.
+     * <p>
+     * Corporation lookups are timed per row as corporation resolution; the location lookups and prefetch
+     * queries are timed once per chunk as location upsert.
+     */
+    private List<Resolution> resolveChunk(List<LocationRow> rows, boolean dryRun) {
+        List<Resolution> resolutions = new ArrayList<>(rows.size());
+        ChunkInserts inserts = new ChunkInserts();
+        Set<UUID> stored = new HashSet<>();
+        long lookupNanos = 0;
+        for (LocationRow row : rows) {
+            long start = System.nanoTime();
+            Corporation corp = resolveCorporation(row.corporationId(), row.doingBusinessAs(), row.website(), row.name());
+            long resolved = System.nanoTime();
+            recordPhase(Phase.CORPORATION_RESOLUTION, resolved - start);
+            if (corp == null || row.id() == null) {
+                resolutions.add(null);
+                continue;
+            }
+            UUID locId = UUID.fromString(row.id());
+            UUID existingId = existingLocationId(corp.getId(), locId, row.storeId(), row.name(), row.city(),
+                row.state(), inserts);
+            if (existingId == null) {
+                // A dry run writes nothing, so later rows do not see this one either
+                if (!dryRun) {
+                    inserts.add(locId, corp.getId(), row.storeId(), row.name(), row.city(), row.state());
                 }
+            } else if (!inserts.ids.contains(existingId)) {
+                stored.add(existingId);
             }
+            resolutions.add(new Resolution(corp, existingId));
+            lookupNanos += System.nanoTime() - resolved;
         }
+
+        long start = System.nanoTime();
+        List<UUID> batch = new ArrayList<>(PREFETCH_BATCH);
+        for (UUID id : stored) {
+            batch.add(id);
+            if (batch.size() == PREFETCH_BATCH) {
+                locationRepository.findAllById(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            locationRepository.findAllById(batch);
+        }
+        recordPhase(Phase.LOCATION_UPSERT, lookupNanos + System.nanoTime() - start);
+        return resolutions;
+    }
+
+    /**
+     * Corporation of a locations row from its corporation id or aliases, without creating one.
+     */
+    private Corporation resolveCorporation(UUID corpId, String dba, String website, String locName) {
+        Corporation corp = null;
+        if (corpId != null) {
+            corp = externalIdToCorp.get(corpId);
+        }
+        if (corp == null) {
+            corp = findCorporation(Kind.WEBSITE, website);
+        }
+        if (corp == null) {
+            corp = findCorporation(Kind.DOING_BUSINESS_AS, dba);
+        }
+        if (corp == null) {
+            corp = findCorporation(Kind.DOING_BUSINESS_AS, locName);
+        }
+        if (corp == null) {
+            corp = findCorporation(Kind.LEGAL_NAME, locName);
+        }
+        return corp;
+    }
+
+    /**
+     * Id of the location a row updates: by store id, then name|city|state within the corporation, then the
+     * row's own id; null for a new location. Each key is looked up among stored locations and then among
+     * {@code inserts}, when given.
+     */
+    private UUID existingLocationId(UUID corporationId, UUID locId, String storeId, String name, String city,
+                                    String state, ChunkInserts inserts) {
+        UUID existingId = null;
+        if (storeId != null && !storeId.isEmpty()) {
+            existingId = lookup(locationsByStoreId, corporationId, storeId);
+            if (existingId == null && inserts != null) {
+                existingId = lookup(inserts.byStoreId, corporationId, storeId);
+            }
+        }
+        if (existingId == null) {
+            String nameKey = nameKey(name, city, state);
+            existingId = lookup(locationsByName, corporationId, nameKey);
+            if (existingId == null && inserts != null) {
+                existingId = lookup(inserts.byName, corporationId, nameKey);
+            }
+        }
+        if (existingId == null && (knownLocationIds.contains(locId) || inserts != null && inserts.ids.contains(locId))) {
+            existingId = locId;
+        }
+        return existingId;
+    }
+
+    /**
+     * Reads the next {@code chunkSize} rows, or fewer at the end of the file.
+     *
+     * @return an empty list once the file is exhausted
+     */
+    private List<String[]> readChunk(CSVReader reader) throws IOException, CsvValidationException {
+        long start = System.nanoTime();
+        List<String[]> chunk = new ArrayList<>(chunkSize);
+        String[] row;
+        while (chunk.size() < chunkSize && (row = reader.readNext()) != null) {
+            chunk.add(row);
+        }
+        recordPhase(Phase.PARSE, System.nanoTime() - start);
+        return chunk;
+    }
+
+    /**
+     * Runs {@code rows} in one transaction, then flushes the chunk as JDBC batches (timed as {@code flushPhase})
+     * and clears the persistence context so managed entities do not accumulate across chunks. A dry run
+     * rolls the chunk back instead.
+     * <p>
+     * Nothing inside the chunk flushes early: existing locations are found through the prefetched key maps
+     * and loaded by id before the chunk's rows run, and an automatic flush would dirty-check every entity of
+     * the chunk and split the batches.
+     */
+    private void writeChunk(boolean dryRun, Phase flushPhase, Runnable rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.setFlushMode(FlushModeType.COMMIT);
+            rows.run();
+            long start = System.nanoTime();
+            if (dryRun) {
+                status.setRollbackOnly();
+            } else {
+                entityManager.flush();
+            }
+            entityManager.clear();
+            recordPhase(flushPhase, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Result of a parser worker, unwrapping the reader's or worker's failure.
+     */
+    private static <T> T await(Future<T> future) throws IOException, CsvValidationException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof CsvValidationException csv) throw csv;
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static ThreadFactory loaderThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Updates the stored corporation {@code id} in place. A dry run only counts the change.
+     */
+    private Corporation updateCorporation(UUID id, String legalName, String dba, String website, boolean dryRun) {
+        Corporation corp = dryRun ? corporationsById.get(id) : entityManager.find(Corporation.class, id);
+        if (equals(corp.getLegalName(), legalName) && equals(corp.getDoingBusinessAs(), dba)
+                && equals(corp.getWebsite(), website)) {
+            return corp;
+        }
+        if (!dryRun) {
+            corp.setLegalName(legalName);
+            corp.setDoingBusinessAs(dba);
+            corp.setWebsite(website);
+            rememberCreated(corp);
+        }
+        updatedCorps++;
+        return corp;
+    }
+
+    private void indexLocation(UUID id, UUID corporationId, String storeId, String name, String city, String state) {
+        if (storeId != null && !storeId.isEmpty()) {
+            locationsByStoreId.computeIfAbsent(corporationId, k -> new HashMap<>()).putIfAbsent(storeId, id);
+        }
+        locationsByName.computeIfAbsent(corporationId, k -> new HashMap<>()).putIfAbsent(nameKey(name, city, state), id);
+    }
+
+    /**
+     * Drops the keys a location was stored under before an update, unless they belong to another location.
+     */
+    private void unindexLocation(UUID id, UUID corporationId, String storeId, String nameKey) {
+        Map<String, UUID> byStoreId = locationsByStoreId.get(corporationId);
+        if (byStoreId != null && storeId != null) {
+            byStoreId.remove(storeId, id);
+        }
+        Map<String, UUID> byName = locationsByName.get(corporationId);
+        if (byName != null) {
+            byName.remove(nameKey, id);
+        }
+    }
+
+    private static UUID lookup(Map<UUID, Map<String, UUID>> index, UUID corporationId, String key) {
+        Map<String, UUID> keys = index.get(corporationId);
+        return keys == null ? null : keys.get(key);
+    }
+
+    private static String nameKey(String name, String city, String state) {
+        return name + "|" + city + "|" + state;
+    }
+
+    /**
+     * Exact alias lookup against the compiled dictionary, falling back to corporations created since it was
+     * compiled. Replaces the per-row findByWebsite/findByDoingBusinessAs/findByLegalName queries, and fails
+     * like them when more than one corporation carries the alias rather than guessing between them.
+     */
+    private Corporation findCorporation(Kind kind, String alias) {
+        if (alias == null) {
+            return null;
+        }
+        UUID[] ids = aliases.lookup(kind, alias);
+        if (ids.length > 1) {
+            throw new IncorrectResultSizeDataAccessException(
+                "Ambiguous " + kind + " '" + alias + "': shared by corporations " + Arrays.toString(ids), 1, ids.length);
+        }
+        if (ids.length == 1) {
+            return corporationsById.get(ids[0]);
+        }
+        return createdAliases.get(kind.name() + ':' + alias);
+    }
+
+    private void rememberCreated(Corporation corp) {
+        corporationsById.put(corp.getId(), corp);
+        createdAliases.putIfAbsent(Kind.WEBSITE.name() + ':' + corp.getWebsite(), corp);
+        createdAliases.putIfAbsent(Kind.DOING_BUSINESS_AS.name() + ':' + corp.getDoingBusinessAs(), corp);
+        createdAliases.putIfAbsent(Kind.LEGAL_NAME.name() + ':' + corp.getLegalName(), corp);
+    }
+
+    private void recordPhase(Phase phase, long nanos) {
+        phaseTimers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    private long phaseMillis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phaseNanos.get(phase.ordinal()));
+    }
+
+    private void compileAliases() {
+        CorporationAliasDictionary.Builder builder = CorporationAliasDictionary.builder();
+        for (Corporation corp : corporationsById.values()) {
+            builder.addCorporation(corp.getId(), corp.getLegalName(), corp.getDoingBusinessAs(), corp.getWebsite());
+        }
+        aliases = builder.build();
+        createdAliases.clear();
     }
 
     private String getOrNull(String[] row, int idx) {
@@ -285,11 +781,6 @@ public class LoadCsvCommand {
         return val.isEmpty() ? null : val;
     }
 
-    private String getValueByHeader(String[] row, List<String> headers, String headerName) {
-        int idx = headers.indexOf(headerName);
-        return getOrNull(row, idx);
-    }
-
     private Double parseDouble(String value) {
         if (value == null || value.isEmpty()) return null;
         try {
@@ -312,5 +803,57 @@ public class LoadCsvCommand {
         if (a == null || b == null) return false;
         return a.equals(b);
     }
-}
 
+    /**
+     * Column positions of a locations file, looked up once from its header row; -1 when absent.
+     */
+    private record LocationColumns(int id, int name, int streetAddress, int addressLine1, int addressLine2,
+                                   int city, int city1, int state, int country, int postalCode, int storeId,
+                                   int lat, int lon, int h3Cell, int corporationId, int doingBusinessAs,
+                                   int website) {
+
+        static LocationColumns of(List<String> headers) {
+            return new LocationColumns(headers.indexOf("id"), headers.indexOf("name"),
+                headers.indexOf("street_address"), headers.indexOf("address_line_1"),
+                headers.indexOf("address_line_2"), headers.indexOf("city"), headers.indexOf("city1"),
+                headers.indexOf("state"), headers.indexOf("country"), headers.indexOf("postal_code"),
+                headers.indexOf("store_id"), headers.indexOf("lat"), headers.indexOf("lon"),
+                headers.indexOf("h3_cell"), headers.indexOf("corporation_id"),
+                headers.indexOf("doing_business_as"), headers.indexOf("website"));
+        }
+    }
+
+    /**
+     * A parsed locations row handed from the parser workers to the writer.
+     */
+    /**
+     * How the writer applies a locations row: the corporation it belongs to and the location it updates, or
+     * null to insert it.
+     */
+    private record Resolution(Corporation corporation, UUID existingId) {
+    }
+
+    /**
+     * Keys of the locations a chunk will insert, laid out like {@link #locationsByStoreId},
+     * {@link #locationsByName} and {@link #knownLocationIds}.
+     */
+    private static final class ChunkInserts {
+        final Map<UUID, Map<String, UUID>> byStoreId = new HashMap<>();
+        final Map<UUID, Map<String, UUID>> byName = new HashMap<>();
+        final Set<UUID> ids = new HashSet<>();
+
+        void add(UUID id, UUID corporationId, String storeId, String name, String city, String state) {
+            if (storeId != null && !storeId.isEmpty()) {
+                byStoreId.computeIfAbsent(corporationId, k -> new HashMap<>()).putIfAbsent(storeId, id);
+            }
+            byName.computeIfAbsent(corporationId, k -> new HashMap<>()).putIfAbsent(nameKey(name, city, state), id);
+            ids.add(id);
+        }
+    }
+
+    private record LocationRow(UUID corporationId, String doingBusinessAs, String website, String id, String name,
+                               String streetAddress, String addressLine1, String addressLine2, String city,
+                               String state, Countries country, String postalCode, String storeId, Double lat,
+                               Double lon, String h3Cell) {
+    }
+}
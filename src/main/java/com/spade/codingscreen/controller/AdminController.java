@@ -0,0 +1,51 @@
+package com.spade.codingscreen.controller;
+
+import com.spade.codingscreen.matching.MatchIndex;
+import com.spade.codingscreen.matching.MatchIndexService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Operational endpoints for a running server.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdminController {
+
+    private final MatchIndexService matchIndexService;
+
+    public AdminController(MatchIndexService matchIndexService) {
+        this.matchIndexService = matchIndexService;
+    }
+
+    /**
+     * Rebuilds the match index from the database in the background, e.g. after {@code --load-csv}.
+     * Returns 202 immediately, or with {@code wait=true} blocks until the new index is published.
+     */
+    @PostMapping("/admin/reload")
+    public ResponseEntity<Map<String, Object>> reload(@RequestParam(defaultValue = "false") boolean wait)
+            throws InterruptedException {
+        CompletableFuture<MatchIndex> reload = matchIndexService.reloadAsync();
+        if (!wait) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("status", "reloading"));
+        }
+        try {
+            MatchIndex index = reload.get();
+            return ResponseEntity.ok(Map.of(
+                "status", "reloaded",
+                "locations", index.getLocationCount(),
+                "corporations", index.getCorporationCount()));
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("status", "failed", "detail", String.valueOf(e.getCause().getMessage())));
+        }
+    }
+}
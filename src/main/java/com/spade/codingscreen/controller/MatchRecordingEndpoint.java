@@ -0,0 +1,63 @@
+package com.spade.codingscreen.controller;
+
+import com.spade.codingscreen.matching.MatchRecorder;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Actuator endpoint {@code /actuator/matchrecording} that starts and stops the {@link MatchRecorder}. It is
+ * an operational control rather than part of the API, so it is served on the management port and, like
+ * every actuator endpoint outside {@code management.endpoints.web.exposure.include}, not exposed at all
+ * until an operator opts in. Being an actuator endpoint, it works the same on the servlet and reactive stacks.
+ */
+@Component
+@WebEndpoint(id = "matchrecording")
+public class MatchRecordingEndpoint {
+
+    private final MatchRecorder matchRecorder;
+
+    public MatchRecordingEndpoint(MatchRecorder matchRecorder) {
+        this.matchRecorder = matchRecorder;
+    }
+
+    /**
+     * Starts a recording of match events; {@code slowMs} overrides the slow-match threshold.
+     * Returns 409 if one is already running.
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@Nullable Long slowMs) {
+        if (!matchRecorder.start(slowMs == null ? null : Duration.ofMillis(slowMs))) {
+            return new WebEndpointResponse<>(Map.of("status", "already recording"), HttpStatus.CONFLICT.value());
+        }
+        return new WebEndpointResponse<>(Map.of("status", "recording"));
+    }
+
+    /**
+     * Stops the recording and returns it as a {@code .jfr} file, or an empty 404 if none is running.
+     */
+    @DeleteOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> stop() throws IOException {
+        Path file = matchRecorder.stop();
+        if (file == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            return new WebEndpointResponse<>(new ByteArrayResource(Files.readAllBytes(file)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.spade.codingscreen.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.spade.codingscreen.dto.MerchantRequest;
+import com.spade.codingscreen.dto.SolutionResponse;
+import com.spade.codingscreen.matching.MatchIndexService;
+import com.spade.codingscreen.matching.MatchResult;
+import com.spade.codingscreen.matching.MerchantMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+
+/**
+ * Non-blocking deployment of the solution endpoints on Netty, enabled with the {@code reactive} profile
+ * ({@code spring.main.web-application-type=reactive}); the servlet controllers are not registered then.
+ * <p>
+ * Single requests are matched inline on the event loop because matching is an in-memory lookup. Batches
+ * fan out over the fork-join pool and would hold the event loop, so they run on the bounded elastic
+ * scheduler, as does waiting for an index reload, the only path that reads the database.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSolutionRoutes {
+
+    private static final ParameterizedTypeReference<List<MerchantRequest>> REQUEST_LIST =
+        new ParameterizedTypeReference<>() {};
+
+    private final MerchantMatcher matcher;
+    private final MatchIndexService matchIndexService;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+
+    public ReactiveSolutionRoutes(MerchantMatcher matcher, MatchIndexService matchIndexService, ObjectMapper objectMapper,
+                                  @Value("${matching.batch.max-size:1000}") int maxBatchSize) {
+        this.matcher = matcher;
+        this.matchIndexService = matchIndexService;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Tomcat is also on the classpath and would otherwise be picked for the reactive server.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> solutionRoutes() {
+        return RouterFunctions.route()
+            .route(POST("/solution/stream").and(contentType(MediaType.APPLICATION_NDJSON)), this::stream)
+            .POST("/solution/batch", this::batch)
+            .POST("/solution/", this::solution)
+            .POST("/admin/reload", this::reload)
+            .build();
+    }
+
+    private Mono<ServerResponse> solution(ServerRequest request) {
+        boolean explain = request.queryParam("explain").map(Boolean::parseBoolean).orElse(false);
+        int k;
+        try {
+            k = request.queryParam("k").map(Integer::parseInt).orElse(5);
+        } catch (NumberFormatException e) {
+            return invalidParameter("k");
+        }
+        return request.bodyToMono(MerchantRequest.class)
+            .flatMap(body -> toServerResponse(SolutionResponses.solution(matcher, body, explain, k)))
+            .switchIfEmpty(Mono.defer(() -> ServerResponse.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("detail", "Required request body is missing"))));
+    }
+
+    private Mono<ServerResponse> batch(ServerRequest request) {
+        return request.bodyToMono(REQUEST_LIST)
+            .publishOn(Schedulers.boundedElastic())
+            .map(requests -> SolutionResponses.batch(matcher, requests, maxBatchSize))
+            .flatMap(responses -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(responses))
+            .onErrorResume(ResponseStatusException.class, e -> toServerResponse(SolutionResponses.rejected(e)));
+    }
+
+    /**
+     * Same lines as {@link SolutionStreamController}: a record that does not bind to a request gets an
+     * {@code error} line and the stream goes on, while input that is not JSON ends it with a final one.
+     */
+    private Mono<ServerResponse> stream(ServerRequest request) {
+        Flux<JsonNode> results = request.bodyToFlux(JsonNode.class)
+            .concatMap(record -> {
+                JsonNode requestId = record.get(SolutionStreamController.REQUEST_ID);
+                return Mono.fromCallable(() -> objectMapper.treeToValue(record, MerchantRequest.class))
+                    .map(body -> streamLine(requestId, matcher.match(body)))
+                    .onErrorResume(JsonProcessingException.class,
+                        e -> Mono.just(errorLine(requestId, e.getOriginalMessage())));
+            })
+            .onErrorResume(ServerWebInputException.class, e -> Mono.just(errorLine(null, decodingMessage(e))));
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(results, JsonNode.class);
+    }
+
+    private Mono<ServerResponse> reload(ServerRequest request) {
+        boolean wait = request.queryParam("wait").map(Boolean::parseBoolean).orElse(false);
+        if (!wait) {
+            matchIndexService.reloadAsync();
+            return ServerResponse.status(HttpStatus.ACCEPTED).bodyValue(Map.of("status", "reloading"));
+        }
+        return Mono.fromFuture(matchIndexService::reloadAsync)
+            .publishOn(Schedulers.boundedElastic())
+            .flatMap(index -> ServerResponse.ok().bodyValue(Map.of(
+                "status", "reloaded",
+                "locations", index.getLocationCount(),
+                "corporations", index.getCorporationCount())))
+            .onErrorResume(e -> ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .bodyValue(Map.of("status", "failed", "detail", String.valueOf(e.getMessage()))));
+    }
+
+    private JsonNode streamLine(JsonNode requestId, Optional<MatchResult> result) {
+        ObjectNode line = objectMapper.createObjectNode();
+        if (requestId != null) {
+            line.set(SolutionStreamController.REQUEST_ID, requestId);
+        }
+        if (result.isPresent()) {
+            SolutionResponse response = SolutionResponses.toResponse(result.get());
+            line.set("location", objectMapper.valueToTree(response.getLocation()));
+            line.set("corporation", objectMapper.valueToTree(response.getCorporation()));
+        } else {
+            line.put("detail", SolutionResponses.NOT_FOUND_DETAIL);
+        }
+        return line;
+    }
+
+    private JsonNode errorLine(JsonNode requestId, String message) {
+        ObjectNode line = objectMapper.createObjectNode();
+        if (requestId != null) {
+            line.set(SolutionStreamController.REQUEST_ID, requestId);
+        }
+        line.put("error", message);
+        return line;
+    }
+
+    private static String decodingMessage(ServerWebInputException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonProcessingException json) {
+                return json.getOriginalMessage();
+            }
+        }
+        return e.getReason();
+    }
+
+    /**
+     * 400 for a query parameter that does not parse, matching the servlet controllers' type-mismatch response.
+     */
+    private static Mono<ServerResponse> invalidParameter(String name) {
+        return ServerResponse.badRequest().contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("detail", "Invalid value for parameter '" + name + "'"));
+    }
+
+    private static Mono<ServerResponse> toServerResponse(ResponseEntity<?> entity) {
+        return entity.getBody() == null
+            ? ServerResponse.status(entity.getStatusCode()).build()
+            : ServerResponse.status(entity.getStatusCode()).contentType(MediaType.APPLICATION_JSON).bodyValue(entity.getBody());
+    }
+}
@@ -1,27 +1,61 @@
 package com.spade.codingscreen.controller;
 
 import com.spade.codingscreen.dto.MerchantRequest;
+import com.spade.codingscreen.dto.SolutionResponse;
+import com.spade.codingscreen.matching.MerchantMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Controller for the merchant matching solution endpoint.
+ * Matching runs entirely against the in-memory match index; no database access happens per request.
+ * The reactive deployment serves the same endpoints from {@link ReactiveSolutionRoutes}.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SolutionController {
 
+    private final MerchantMatcher matcher;
+    private final int maxBatchSize;
+
+    public SolutionController(MerchantMatcher matcher, @Value("${matching.batch.max-size:1000}") int maxBatchSize) {
+        this.matcher = matcher;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Matches a single request. With {@code explain=true} the response also carries the resolving tier and
+     * the {@code k} best candidates scored, with per-feature scores.
+     */
     @PostMapping("/solution/")
-    public ResponseEntity<Map<String, Object>> solution(@RequestBody MerchantRequest request) {
-        // TODO: Your solution goes here
-        Map<String, Object> response = new LinkedHashMap<>();
-        response.put("detail", "solution endpoint stub");
-        response.put("echo", request);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> solution(@RequestBody MerchantRequest request,
+                                      @RequestParam(defaultValue = "false") boolean explain,
+                                      @RequestParam(defaultValue = "5") int k) {
+        return SolutionResponses.solution(matcher, request, explain, k);
     }
-}
 
+    /**
+     * Matches an array of requests in one call. The response array is positionally aligned with the
+     * request array; requests without a match yield {@code null}. Batches larger than
+     * {@code matching.batch.max-size} are rejected with 413 and {@code null} elements with 400.
+     */
+    @PostMapping("/solution/batch")
+    public List<SolutionResponse> batch(@RequestBody List<MerchantRequest> requests) {
+        return SolutionResponses.batch(matcher, requests, maxBatchSize);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, String>> rejected(ResponseStatusException e) {
+        return SolutionResponses.rejected(e);
+    }
+}
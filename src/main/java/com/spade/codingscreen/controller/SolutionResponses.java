@@ -0,0 +1,111 @@
+package com.spade.codingscreen.controller;
+
+import com.spade.codingscreen.dto.ExplainResponse;
+import com.spade.codingscreen.dto.MerchantRequest;
+import com.spade.codingscreen.dto.SolutionResponse;
+import com.spade.codingscreen.matching.FeatureScores;
+import com.spade.codingscreen.matching.IndexedCorporation;
+import com.spade.codingscreen.matching.IndexedLocation;
+import com.spade.codingscreen.matching.MatchExplanation;
+import com.spade.codingscreen.matching.MatchResult;
+import com.spade.codingscreen.matching.MatchTier;
+import com.spade.codingscreen.matching.MerchantMatcher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Response building shared by the servlet controllers and the reactive routes.
+ */
+final class SolutionResponses {
+
+    static final String NOT_FOUND_DETAIL = "No matching location found";
+    static final Map<String, String> NOT_FOUND_BODY = Map.of("detail", NOT_FOUND_DETAIL);
+    static final int MAX_EXPLAIN_CANDIDATES = 50;
+
+    private SolutionResponses() {
+    }
+
+    /**
+     * Response for a single request: the match, a 404 with {@code detail}, or the explain payload.
+     */
+    static ResponseEntity<?> solution(MerchantMatcher matcher, MerchantRequest request, boolean explain, int k) {
+        if (explain) {
+            return explain(matcher, request, Math.max(1, Math.min(k, MAX_EXPLAIN_CANDIDATES)));
+        }
+        Optional<MatchResult> result = matcher.match(request);
+        if (result.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(NOT_FOUND_BODY);
+        }
+        return ResponseEntity.ok(toResponse(result.get()));
+    }
+
+    /**
+     * Responses aligned with {@code requests}; unmatched requests yield {@code null}. A batch of more than
+     * {@code maxBatchSize} requests is rejected with 413 and one holding a {@code null} request with 400,
+     * before any matching runs.
+     */
+    static List<SolutionResponse> batch(MerchantMatcher matcher, List<MerchantRequest> requests, int maxBatchSize) {
+        if (requests.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Batch exceeds the maximum of " + maxBatchSize + " requests");
+        }
+        if (requests.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch requests must not be null");
+        }
+        List<SolutionResponse> responses = new ArrayList<>(requests.size());
+        for (Optional<MatchResult> result : matcher.matchAll(requests)) {
+            responses.add(result.map(SolutionResponses::toResponse).orElse(null));
+        }
+        return responses;
+    }
+
+    /**
+     * Error response for a rejected request, with the reason as {@code detail}.
+     */
+    static ResponseEntity<Map<String, String>> rejected(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatusCode()).body(Map.of("detail", String.valueOf(e.getReason())));
+    }
+
+    static ResponseEntity<ExplainResponse> explain(MerchantMatcher matcher, MerchantRequest request, int k) {
+        MatchExplanation explanation = matcher.explain(request, k);
+
+        List<ExplainResponse.Candidate> candidates = new ArrayList<>(explanation.getCandidates().size());
+        for (MatchExplanation.Candidate candidate : explanation.getCandidates()) {
+            FeatureScores features = candidate.getFeatures();
+            candidates.add(new ExplainResponse.Candidate(
+                locationInfo(candidate.getLocation()),
+                corporationInfo(candidate.getLocation().getCorporation()),
+                features.getTotal(),
+                new ExplainResponse.Features(features.getName(), features.getAddress(), features.getPostalCode(),
+                    features.getCity(), features.isStoreIdMatch())));
+        }
+
+        Optional<MatchResult> result = explanation.getResult();
+        if (result.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExplainResponse(null, null,
+                NOT_FOUND_DETAIL, MatchTier.NONE.getTagValue(), candidates));
+        }
+        MatchResult match = result.get();
+        return ResponseEntity.ok(new ExplainResponse(locationInfo(match.getLocation()),
+            corporationInfo(match.getCorporation()), null, match.getTier().getTagValue(), candidates));
+    }
+
+    static SolutionResponse toResponse(MatchResult result) {
+        return new SolutionResponse(locationInfo(result.getLocation()), corporationInfo(result.getCorporation()));
+    }
+
+    private static SolutionResponse.LocationInfo locationInfo(IndexedLocation location) {
+        return new SolutionResponse.LocationInfo(location.getId(), location.getName());
+    }
+
+    private static SolutionResponse.CorporationInfo corporationInfo(IndexedCorporation corporation) {
+        return new SolutionResponse.CorporationInfo(corporation.getId(), corporation.getLegalName(),
+            corporation.getDoingBusinessAs());
+    }
+}
@@ -0,0 +1,139 @@
+package com.spade.codingscreen.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.spade.codingscreen.dto.MerchantRequest;
+import com.spade.codingscreen.dto.SolutionResponse;
+import com.spade.codingscreen.matching.MatchResult;
+import com.spade.codingscreen.matching.MatchStage;
+import com.spade.codingscreen.matching.MerchantMatcher;
+import com.spade.codingscreen.matching.StageTimers;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Streaming variant of the solution endpoint for large backfills.
+ * Reads newline-delimited {@link MerchantRequest} objects and writes one NDJSON result per input record,
+ * in input order, as it goes. Only one record is held in memory at a time.
+ * <p>
+ * An optional {@code requestId} field on an input record is echoed back on its result so callers can join
+ * the two streams. Matched records carry {@code location} and {@code corporation}; unmatched records carry
+ * {@code detail}. A record that is valid JSON but not a request gets an {@code error} line in its place and
+ * the stream goes on; input that is not JSON ends the stream with a final {@code error} line.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SolutionStreamController {
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String REQUEST_ID = "requestId";
+
+    private static final int FLUSH_EVERY = 256;
+
+    private final MerchantMatcher matcher;
+    private final StageTimers stageTimers;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final ObjectWriter lineWriter;
+
+    public SolutionStreamController(MerchantMatcher matcher, StageTimers stageTimers, ObjectMapper objectMapper) {
+        this.matcher = matcher;
+        this.stageTimers = stageTimers;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(MerchantRequest.class);
+        this.lineWriter = objectMapper.writer()
+            .without(SerializationFeature.INDENT_OUTPUT, SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @PostMapping(value = "/solution/stream", consumes = NDJSON, produces = NDJSON)
+    public void stream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body);
+             JsonGenerator generator = objectMapper.getFactory()
+                 .createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            int written = 0;
+            while (true) {
+                ObjectNode record;
+                MerchantRequest request;
+                long start;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null) {
+                        break;
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new JsonParseException(parser, "Expected a JSON object per line");
+                    }
+                    start = System.nanoTime();
+                    record = objectMapper.readTree(parser);
+                } catch (JsonProcessingException e) {
+                    writeError(generator, null, e.getOriginalMessage());
+                    break;
+                }
+                try {
+                    request = requestReader.readValue(record);
+                    stageTimers.record(MatchStage.DESERIALIZE, System.nanoTime() - start);
+                } catch (JsonProcessingException e) {
+                    writeError(generator, record.get(REQUEST_ID), e.getOriginalMessage());
+                    continue;
+                }
+
+                Optional<MatchResult> result = matcher.match(request);
+                start = System.nanoTime();
+                writeResult(generator, record.get(REQUEST_ID), result);
+                stageTimers.record(MatchStage.SERIALIZE, System.nanoTime() - start);
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private void writeResult(JsonGenerator generator, JsonNode requestId, Optional<MatchResult> result) throws IOException {
+        generator.writeStartObject();
+        if (requestId != null) {
+            generator.writeFieldName(REQUEST_ID);
+            generator.writeTree(requestId);
+        }
+        if (result.isPresent()) {
+            SolutionResponse response = SolutionResponses.toResponse(result.get());
+            generator.writeFieldName("location");
+            lineWriter.writeValue(generator, response.getLocation());
+            generator.writeFieldName("corporation");
+            lineWriter.writeValue(generator, response.getCorporation());
+        } else {
+            generator.writeStringField("detail", SolutionResponses.NOT_FOUND_DETAIL);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeError(JsonGenerator generator, JsonNode requestId, String message) throws IOException {
+        generator.writeStartObject();
+        if (requestId != null) {
+            generator.writeFieldName(REQUEST_ID);
+            generator.writeTree(requestId);
+        }
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
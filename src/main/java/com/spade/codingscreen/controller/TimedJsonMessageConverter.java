@@ -0,0 +1,85 @@
+package com.spade.codingscreen.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spade.codingscreen.dto.ExplainResponse;
+import com.spade.codingscreen.dto.MerchantRequest;
+import com.spade.codingscreen.dto.SolutionResponse;
+import com.spade.codingscreen.matching.MatchStage;
+import com.spade.codingscreen.matching.StageTimers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * The application's JSON converter, replacing Spring Boot's default one, that records reading
+ * {@link MerchantRequest} bodies as {@link MatchStage#DESERIALIZE} and writing solution responses as
+ * {@link MatchStage#SERIALIZE}. Other JSON bodies are converted as before without being timed.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TimedJsonMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final StageTimers stageTimers;
+
+    public TimedJsonMessageConverter(ObjectMapper objectMapper, StageTimers stageTimers) {
+        super(objectMapper);
+        this.stageTimers = stageTimers;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+        throws IOException, HttpMessageNotReadableException {
+        if (!isRequestType(type)) {
+            return super.read(type, contextClass, inputMessage);
+        }
+        long start = System.nanoTime();
+        Object body = super.read(type, contextClass, inputMessage);
+        stageTimers.record(MatchStage.DESERIALIZE, System.nanoTime() - start);
+        return body;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+        throws IOException, HttpMessageNotWritableException {
+        if (!isResponse(object, type)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long start = System.nanoTime();
+        super.writeInternal(object, type, outputMessage);
+        stageTimers.record(MatchStage.SERIALIZE, System.nanoTime() - start);
+    }
+
+    /**
+     * {@code MerchantRequest} or {@code List<MerchantRequest>}.
+     */
+    private static boolean isRequestType(Type type) {
+        return type == MerchantRequest.class || isListOf(type, MerchantRequest.class);
+    }
+
+    /**
+     * A single, explain or not-found solution response, or a batch response declared as
+     * {@code List<SolutionResponse>}.
+     */
+    private static boolean isResponse(Object object, Type type) {
+        return object instanceof SolutionResponse
+            || object instanceof ExplainResponse
+            || object == SolutionResponses.NOT_FOUND_BODY
+            || isListOf(type, SolutionResponse.class);
+    }
+
+    private static boolean isListOf(Type type, Class<?> elementType) {
+        return type instanceof ParameterizedType parameterized
+            && parameterized.getRawType() == List.class
+            && parameterized.getActualTypeArguments()[0] == elementType;
+    }
+}
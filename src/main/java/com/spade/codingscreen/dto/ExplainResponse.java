@@ -0,0 +1,140 @@
+package com.spade.codingscreen.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * DTO for {@code /solution/?explain=true}: the usual solution fields (null when nothing matched) plus the
+ * resolving cascade tier and the top-scoring candidates with their per-feature scores.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExplainResponse extends SolutionResponse {
+
+    @JsonProperty("detail")
+    private String detail;
+
+    @JsonProperty("tier")
+    private String tier;
+
+    @JsonProperty("candidates")
+    private List<Candidate> candidates;
+
+    public ExplainResponse() {
+    }
+
+    public ExplainResponse(LocationInfo location, CorporationInfo corporation, String detail, String tier,
+                           List<Candidate> candidates) {
+        super(location, corporation);
+        this.detail = detail;
+        this.tier = tier;
+        this.candidates = candidates;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public String getTier() {
+        return tier;
+    }
+
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * A scored candidate location.
+     */
+    public static class Candidate {
+        @JsonProperty("location")
+        private LocationInfo location;
+
+        @JsonProperty("corporation")
+        private CorporationInfo corporation;
+
+        @JsonProperty("score")
+        private double score;
+
+        @JsonProperty("features")
+        private Features features;
+
+        public Candidate() {
+        }
+
+        public Candidate(LocationInfo location, CorporationInfo corporation, double score, Features features) {
+            this.location = location;
+            this.corporation = corporation;
+            this.score = score;
+            this.features = features;
+        }
+
+        public LocationInfo getLocation() {
+            return location;
+        }
+
+        public CorporationInfo getCorporation() {
+            return corporation;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public Features getFeatures() {
+            return features;
+        }
+    }
+
+    /**
+     * Per-feature similarity scores (0-100) behind a candidate's total.
+     */
+    public static class Features {
+        @JsonProperty("name")
+        private int name;
+
+        @JsonProperty("address")
+        private int address;
+
+        @JsonProperty("postal_code")
+        private int postalCode;
+
+        @JsonProperty("city")
+        private int city;
+
+        @JsonProperty("store_id_match")
+        private boolean storeIdMatch;
+
+        public Features() {
+        }
+
+        public Features(int name, int address, int postalCode, int city, boolean storeIdMatch) {
+            this.name = name;
+            this.address = address;
+            this.postalCode = postalCode;
+            this.city = city;
+            this.storeIdMatch = storeIdMatch;
+        }
+
+        public int getName() {
+            return name;
+        }
+
+        public int getAddress() {
+            return address;
+        }
+
+        public int getPostalCode() {
+            return postalCode;
+        }
+
+        public int getCity() {
+            return city;
+        }
+
+        public boolean isStoreIdMatch() {
+            return storeIdMatch;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.spade.codingscreen.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Objects;
+
 /**
  * DTO for incoming merchant matching requests.
  */
@@ -73,6 +75,23 @@ public class MerchantRequest {
         this.postalCode = postalCode;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MerchantRequest)) return false;
+        MerchantRequest that = (MerchantRequest) o;
+        return Objects.equals(merchantName, that.merchantName)
+                && Objects.equals(address, that.address)
+                && Objects.equals(city, that.city)
+                && Objects.equals(region, that.region)
+                && Objects.equals(postalCode, that.postalCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(merchantName, address, city, region, postalCode);
+    }
+
     @Override
     public String toString() {
         return "MerchantRequest{" +
@@ -0,0 +1,122 @@
+package com.spade.codingscreen.matching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes free-form street addresses: upper-cases, strips punctuation, applies USPS street suffix
+ * and directional abbreviations, and separates the house number and unit from the street.
+ * <p>
+ * "1900 University Boulevard, Suite 210" and "1900 University Blvd Ste 210" both normalize to house
+ * number "1900", street "UNIVERSITY BLVD" and unit "210".
+ */
+public final class AddressNormalizer {
+
+    private static final Pattern PUNCTUATION = Pattern.compile("[^A-Z0-9#\\s-]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Plain ("4433", "352B", "123-125") and Wisconsin grid ("N83W15701") house numbers.
+    private static final Pattern HOUSE_NUMBER = Pattern.compile("\\d+[A-Z]?(-\\d+[A-Z]?)?|[NSEW]\\d+[NSEW]\\d+");
+
+    private static final Map<String, String> SUFFIXES = Map.ofEntries(
+        Map.entry("ALLEY", "ALY"), Map.entry("AVENUE", "AVE"), Map.entry("AV", "AVE"),
+        Map.entry("BOULEVARD", "BLVD"), Map.entry("CIRCLE", "CIR"), Map.entry("COURT", "CT"),
+        Map.entry("CROSSING", "XING"), Map.entry("DRIVE", "DR"), Map.entry("EXPRESSWAY", "EXPY"),
+        Map.entry("FREEWAY", "FWY"), Map.entry("HIGHWAY", "HWY"), Map.entry("LANE", "LN"),
+        Map.entry("PARKWAY", "PKWY"), Map.entry("PIKES", "PIKE"), Map.entry("PKE", "PIKE"),
+        Map.entry("PLACE", "PL"), Map.entry("PLAZA", "PLZ"), Map.entry("ROAD", "RD"), Map.entry("ROUTE", "RTE"),
+        Map.entry("SQUARE", "SQ"), Map.entry("STREET", "ST"), Map.entry("TERRACE", "TER"),
+        Map.entry("TRAIL", "TRL"), Map.entry("TURNPIKE", "TPKE"), Map.entry("WY", "WAY")
+    );
+
+    private static final Map<String, String> DIRECTIONALS = Map.of(
+        "NORTH", "N", "SOUTH", "S", "EAST", "E", "WEST", "W",
+        "NORTHEAST", "NE", "NORTHWEST", "NW", "SOUTHEAST", "SE", "SOUTHWEST", "SW"
+    );
+
+    private static final Set<String> UNIT_DESIGNATORS = Set.of(
+        "APT", "APARTMENT", "STE", "SUITE", "UNIT", "BLDG", "BUILDING", "FL", "FLOOR", "RM", "ROOM",
+        "SPC", "SPACE", "LOT", "DEPT", "OFC", "OFFICE", "#"
+    );
+
+    private AddressNormalizer() {
+    }
+
+    /**
+     * Normalizes one or more address lines, e.g. a location's address_line_1 and address_line_2.
+     */
+    public static NormalizedAddress normalize(String... lines) {
+        List<String> tokens = new ArrayList<>();
+        for (String line : lines) {
+            if (line != null) {
+                tokenize(line, tokens);
+            }
+        }
+        if (tokens.isEmpty()) {
+            return NormalizedAddress.EMPTY;
+        }
+
+        int start = 0;
+        String houseNumber = null;
+        if (HOUSE_NUMBER.matcher(tokens.get(0)).matches()) {
+            houseNumber = tokens.get(0);
+            start = 1;
+        }
+
+        StringBuilder street = new StringBuilder();
+        String unit = null;
+        for (int i = start; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (i > start && UNIT_DESIGNATORS.contains(token)) {
+                unit = unitValue(tokens, i + 1);
+                break;
+            }
+            if (i > start && token.startsWith("#")) {
+                unit = token.substring(1);
+                break;
+            }
+            if (street.length() > 0) {
+                street.append(' ');
+            }
+            street.append(standardize(token));
+        }
+
+        return new NormalizedAddress(houseNumber, FuzzyText.of(street.toString()), unit);
+    }
+
+    private static void tokenize(String line, List<String> tokens) {
+        String cleaned = PUNCTUATION.matcher(line.toUpperCase(Locale.ROOT).replace('.', ' ').replace(',', ' '))
+            .replaceAll("");
+        // Separate "#100" style units from a preceding word ("Blvd#100").
+        cleaned = cleaned.replace("#", " #");
+        for (String token : WHITESPACE.split(cleaned.trim())) {
+            if (!token.isEmpty() && !"-".equals(token)) {
+                tokens.add(token);
+            }
+        }
+    }
+
+    private static String unitValue(List<String> tokens, int from) {
+        StringBuilder unit = new StringBuilder();
+        for (int i = from; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if ("#".equals(token) || UNIT_DESIGNATORS.contains(token)) {
+                continue;
+            }
+            unit.append(token.startsWith("#") ? token.substring(1) : token);
+        }
+        return unit.length() == 0 ? null : unit.toString();
+    }
+
+    private static String standardize(String token) {
+        String suffix = SUFFIXES.get(token);
+        if (suffix != null) {
+            return suffix;
+        }
+        String directional = DIRECTIONALS.get(token);
+        return directional != null ? directional : token;
+    }
+}
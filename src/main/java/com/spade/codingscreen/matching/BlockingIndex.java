@@ -0,0 +1,129 @@
+package com.spade.codingscreen.matching;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Partitions indexed locations by exact postal code, 3-character postal prefix and state.
+ * Blocks hold ordinals into the index's {@link LocationStore}.
+ */
+public final class BlockingIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, int[]> byPostalCode;
+    private final Map<String, int[]> byZip3;
+    private final Map<String, int[]> byState;
+
+    private BlockingIndex(Map<String, int[]> byPostalCode, Map<String, int[]> byZip3, Map<String, int[]> byState) {
+        this.byPostalCode = byPostalCode;
+        this.byZip3 = byZip3;
+        this.byState = byState;
+    }
+
+    /**
+     * Wraps prebuilt postal code, ZIP3 and state blocks, keyed as {@link #build} keys them.
+     */
+    static BlockingIndex of(Map<String, int[]> byPostalCode, Map<String, int[]> byZip3, Map<String, int[]> byState) {
+        return new BlockingIndex(byPostalCode, byZip3, byState);
+    }
+
+    public static BlockingIndex build(LocationStore locations) {
+        Map<String, List<Integer>> postal = new HashMap<>();
+        Map<String, List<Integer>> zip3 = new HashMap<>();
+        Map<String, List<Integer>> state = new HashMap<>();
+
+        for (int i = 0; i < locations.size(); i++) {
+            String postalKey = postalKey(locations.postalCode(i));
+            if (postalKey != null) {
+                postal.computeIfAbsent(postalKey, k -> new ArrayList<>()).add(i);
+                String zip3Key = zip3Key(postalKey);
+                if (zip3Key != null) {
+                    zip3.computeIfAbsent(zip3Key, k -> new ArrayList<>()).add(i);
+                }
+            }
+            String stateKey = stateKey(locations.state(i));
+            if (stateKey != null) {
+                state.computeIfAbsent(stateKey, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        return new BlockingIndex(toArrays(postal), toArrays(zip3), toArrays(state));
+    }
+
+    /**
+     * Returns the block for the given tier, or an empty array when the request has no key for it
+     * or no location shares that key.
+     */
+    public int[] block(BlockingTier tier, String postalCode, String region) {
+        switch (tier) {
+            case POSTAL_CODE:
+                return lookup(byPostalCode, postalKey(postalCode));
+            case ZIP3:
+                return lookup(byZip3, zip3Key(postalKey(postalCode)));
+            case STATE:
+                return lookup(byState, stateKey(region));
+            default:
+                throw new IllegalArgumentException("Not a blocking index tier: " + tier);
+        }
+    }
+
+    Map<String, int[]> getPostalCodeBlocks() {
+        return byPostalCode;
+    }
+
+    Map<String, int[]> getZip3Blocks() {
+        return byZip3;
+    }
+
+    Map<String, int[]> getStateBlocks() {
+        return byState;
+    }
+
+    static String postalKey(String postalCode) {
+        if (postalCode == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(postalCode.length());
+        for (int i = 0; i < postalCode.length(); i++) {
+            char c = postalCode.charAt(i);
+            if (c == '-') {
+                break; // ZIP+4
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    static String zip3Key(String postalKey) {
+        return postalKey != null && postalKey.length() >= 3 ? postalKey.substring(0, 3) : null;
+    }
+
+    static String stateKey(String state) {
+        if (state == null) {
+            return null;
+        }
+        String trimmed = state.trim();
+        return trimmed.isEmpty() ? null : trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    private static int[] lookup(Map<String, int[]> blocks, String key) {
+        if (key == null) {
+            return EMPTY;
+        }
+        return blocks.getOrDefault(key, EMPTY);
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            arrays.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return arrays;
+    }
+}
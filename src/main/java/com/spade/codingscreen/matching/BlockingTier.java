@@ -0,0 +1,28 @@
+package com.spade.codingscreen.matching;
+
+/**
+ * Candidate sources used to prune locations before scoring, ordered from narrowest to widest.
+ * The postal and state tiers come from the {@link BlockingIndex}, {@link #CORPORATION_DOMAIN} from the
+ * website domain stems in the {@link CorporationAliasDictionary}, {@link #NEARBY} from the
+ * {@link SpatialIndex}, {@link #PHONETIC_NAME} from the {@link PhoneticIndex}, and {@link #NAME_TRIGRAM} is
+ * the catalogue-wide fallback served by the {@link TrigramIndex}.
+ */
+public enum BlockingTier {
+    POSTAL_CODE("postal_code"),
+    CORPORATION_DOMAIN("corporation_domain"),
+    NEARBY("nearby"),
+    ZIP3("zip3"),
+    STATE("state"),
+    PHONETIC_NAME("phonetic_name"),
+    NAME_TRIGRAM("name_trigram");
+
+    private final String tagValue;
+
+    BlockingTier(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
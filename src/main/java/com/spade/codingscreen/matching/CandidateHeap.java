@@ -0,0 +1,87 @@
+package com.spade.codingscreen.matching;
+
+/**
+ * Fixed-capacity min-heap of (score, location ordinal) pairs that keeps the {@code k} best candidates
+ * seen during a scoring pass. Backed by primitive arrays; a location offered twice is kept once.
+ */
+final class CandidateHeap {
+
+    private final double[] scores;
+    private final int[] ordinals;
+    private int size;
+
+    CandidateHeap(int capacity) {
+        this.scores = new double[capacity];
+        this.ordinals = new int[capacity];
+    }
+
+    void offer(int ordinal, double score) {
+        if (scores.length == 0) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (ordinals[i] == ordinal) {
+                return; // scores are deterministic per query, so a repeat carries no new information
+            }
+        }
+        if (size < scores.length) {
+            scores[size] = score;
+            ordinals[size] = ordinal;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            scores[0] = score;
+            ordinals[0] = ordinal;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Ordinals ordered best first. Drains the heap.
+     */
+    int[] drainBestFirst() {
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = ordinals[0];
+            size--;
+            scores[0] = scores[size];
+            ordinals[0] = ordinals[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && scores[left + 1] < scores[left] ? left + 1 : left;
+            if (scores[i] <= scores[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int ordinal = ordinals[a];
+        ordinals[a] = ordinals[b];
+        ordinals[b] = ordinal;
+    }
+}
@@ -0,0 +1,259 @@
+package com.spade.codingscreen.matching;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Every corporation alias (website, doing-business-as, legal name, and the brand-name keys of those and of
+ * store names) compiled into one character trie laid out in flat arrays. Each node's children are stored
+ * contiguously and sorted by label, so an exact or prefix lookup is a single walk with a binary search per
+ * character and no per-lookup allocation beyond the result.
+ * <p>
+ * Raw aliases are matched verbatim, which is how {@code LoadCsvCommand} resolved them through the
+ * repository; {@link Kind#NAME_KEY} aliases are {@link MatchKeys#nameKey brand-name keys} and support
+ * longest-prefix lookups on token boundaries, so "walgreens pharmacy" resolves through "walgreens".
+ * {@link Kind#DOMAIN_STEM} aliases are {@link MatchKeys#domainStem website domain stems}, resolved against a
+ * compacted merchant name by {@link #resolveStem}.
+ * An alias can belong to several corporations; ids are returned in insertion order.
+ */
+public final class CorporationAliasDictionary {
+
+    /**
+     * Alias namespaces. Each kind is stored under its own leading tag character.
+     */
+    public enum Kind {
+        WEBSITE('w'),
+        DOING_BUSINESS_AS('d'),
+        LEGAL_NAME('l'),
+        NAME_KEY('n'),
+        DOMAIN_STEM('s');
+
+        private final char tag;
+
+        Kind(char tag) {
+            this.tag = tag;
+        }
+    }
+
+    public static final CorporationAliasDictionary EMPTY = builder().build();
+
+    private static final UUID[] NONE = new UUID[0];
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] valueOf;
+    private final UUID[][] values;
+    private final UUID[] subtreeSole;
+
+    private CorporationAliasDictionary(char[] labels, int[] firstChild, int[] childCount, int[] valueOf,
+                                       UUID[][] values, UUID[] subtreeSole) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.valueOf = valueOf;
+        this.values = values;
+        this.subtreeSole = subtreeSole;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Corporations registered under exactly {@code alias}, or an empty array.
+     */
+    public UUID[] lookup(Kind kind, String alias) {
+        if (alias == null) {
+            return NONE;
+        }
+        int node = child(0, kind.tag);
+        for (int i = 0; node >= 0 && i < alias.length(); i++) {
+            node = child(node, alias.charAt(i));
+        }
+        return node >= 0 && valueOf[node] >= 0 ? values[valueOf[node]] : NONE;
+    }
+
+    /**
+     * Corporations registered under the longest alias that is a whole-token prefix of {@code key}
+     * (the alias ends at the end of {@code key} or just before a space), or an empty array.
+     */
+    public UUID[] longestPrefix(Kind kind, String key) {
+        if (key == null) {
+            return NONE;
+        }
+        int node = child(0, kind.tag);
+        int best = -1;
+        for (int i = 0; node >= 0; i++) {
+            boolean boundary = i == key.length() || key.charAt(i) == ' ';
+            if (boundary && valueOf[node] >= 0) {
+                best = valueOf[node];
+            }
+            if (i == key.length()) {
+                break;
+            }
+            node = child(node, key.charAt(i));
+        }
+        return best >= 0 ? values[best] : NONE;
+    }
+
+    /**
+     * Resolves {@code key} to a single corporation in one walk, accepting either the longest alias of at least
+     * {@code minLength} characters that is a prefix of {@code key} ("wingshackwings" for "wingshackwingsbar"),
+     * or, when {@code key} itself is at least {@code minLength} long and runs out inside the trie, the one
+     * corporation owning every alias that extends it ("indiapalacenh" for "indiapalace").
+     * Returns null when neither applies or the answer is not a single corporation.
+     */
+    public UUID resolveStem(Kind kind, String key, int minLength) {
+        if (key == null) {
+            return null;
+        }
+        int node = child(0, kind.tag);
+        int best = -1;
+        for (int i = 0; node >= 0; i++) {
+            if (i >= minLength && valueOf[node] >= 0) {
+                best = valueOf[node];
+            }
+            if (i == key.length()) {
+                if (i >= minLength && subtreeSole[node] != null) {
+                    return subtreeSole[node];
+                }
+                break;
+            }
+            node = child(node, key.charAt(i));
+        }
+        return best >= 0 && values[best].length == 1 ? values[best][0] : null;
+    }
+
+    private int child(int node, char label) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = labels[mid];
+            if (c < label) {
+                low = mid + 1;
+            } else if (c > label) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects aliases and compiles them into a {@link CorporationAliasDictionary}.
+     */
+    public static final class Builder {
+
+        private final Map<String, Set<UUID>> aliases = new TreeMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(Kind kind, String alias, UUID corporationId) {
+            if (alias != null && !alias.isEmpty() && corporationId != null) {
+                aliases.computeIfAbsent(kind.tag + alias, k -> new LinkedHashSet<>()).add(corporationId);
+            }
+            return this;
+        }
+
+        /**
+         * Registers a corporation's raw website, doing-business-as and legal name, the brand-name keys of the
+         * latter two, and the domain stem of the website.
+         */
+        public Builder addCorporation(UUID id, String legalName, String doingBusinessAs, String website) {
+            add(Kind.WEBSITE, website, id);
+            add(Kind.DOING_BUSINESS_AS, doingBusinessAs, id);
+            add(Kind.LEGAL_NAME, legalName, id);
+            add(Kind.NAME_KEY, MatchKeys.nameKey(doingBusinessAs), id);
+            add(Kind.NAME_KEY, MatchKeys.nameKey(legalName), id);
+            add(Kind.DOMAIN_STEM, MatchKeys.domainStem(website), id);
+            return this;
+        }
+
+        /**
+         * Registers the brand-name key of a store name, e.g. "Walgreens #5002" as "walgreens".
+         */
+        public Builder addStoreName(String storeName, UUID corporationId) {
+            return add(Kind.NAME_KEY, MatchKeys.nameKey(storeName), corporationId);
+        }
+
+        public CorporationAliasDictionary build() {
+            Node root = new Node('\0');
+            List<UUID[]> values = new ArrayList<>(aliases.size());
+            for (Map.Entry<String, Set<UUID>> entry : aliases.entrySet()) {
+                Node node = root;
+                for (int i = 0; i < entry.getKey().length(); i++) {
+                    node = node.children.computeIfAbsent(entry.getKey().charAt(i), Node::new);
+                }
+                node.value = values.size();
+                values.add(entry.getValue().toArray(new UUID[0]));
+            }
+
+            // Breadth-first numbering keeps every node's (sorted) children contiguous.
+            List<Node> order = new ArrayList<>();
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                node.id = order.size();
+                order.add(node);
+                queue.addAll(node.children.values());
+            }
+
+            int size = order.size();
+            char[] labels = new char[size];
+            int[] firstChild = new int[size];
+            int[] childCount = new int[size];
+            int[] valueOf = new int[size];
+            UUID[] subtreeSole = new UUID[size];
+            // Reverse breadth-first order visits children before parents.
+            for (int i = size - 1; i >= 0; i--) {
+                Node node = order.get(i);
+                node.sole = node.value >= 0 ? single(values.get(node.value)) : null;
+                node.ambiguous = node.value >= 0 && node.sole == null;
+                for (Node child : node.children.values()) {
+                    if (child.ambiguous || (child.sole != null && node.sole != null && !child.sole.equals(node.sole))) {
+                        node.ambiguous = true;
+                    } else if (node.sole == null) {
+                        node.sole = child.sole;
+                    }
+                }
+                subtreeSole[i] = node.ambiguous ? null : node.sole;
+            }
+            for (Node node : order) {
+                labels[node.id] = node.label;
+                valueOf[node.id] = node.value;
+                childCount[node.id] = node.children.size();
+                firstChild[node.id] = node.children.isEmpty() ? 0 : node.children.firstEntry().getValue().id;
+            }
+            return new CorporationAliasDictionary(labels, firstChild, childCount, valueOf,
+                values.toArray(new UUID[0][]), subtreeSole);
+        }
+
+        private static UUID single(UUID[] ids) {
+            return ids.length == 1 ? ids[0] : null;
+        }
+
+        private static final class Node {
+            final char label;
+            final TreeMap<Character, Node> children = new TreeMap<>();
+            int value = -1;
+            int id;
+            UUID sole;
+            boolean ambiguous;
+
+            Node(char label) {
+                this.label = label;
+            }
+        }
+    }
+}
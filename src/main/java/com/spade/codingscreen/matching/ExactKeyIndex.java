@@ -0,0 +1,114 @@
+package com.spade.codingscreen.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Hash lookups for the exact stages of the match cascade: a composite (name, house number, postal code)
+ * key, and store id restricted to corporations the request name resolves to in the
+ * {@link CorporationAliasDictionary}.
+ */
+public final class ExactKeyIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final LocationStore locations;
+    private final Map<String, int[]> byExactKey;
+    private final Map<String, int[]> byStoreId;
+    private final CorporationAliasDictionary aliases;
+
+    private ExactKeyIndex(LocationStore locations, Map<String, int[]> byExactKey,
+                          Map<String, int[]> byStoreId, CorporationAliasDictionary aliases) {
+        this.locations = locations;
+        this.byExactKey = byExactKey;
+        this.byStoreId = byStoreId;
+        this.aliases = aliases;
+    }
+
+    public static ExactKeyIndex build(LocationStore locations, CorporationAliasDictionary aliases) {
+        Map<String, List<Integer>> exact = new HashMap<>();
+        Map<String, List<Integer>> storeIds = new HashMap<>();
+
+        for (int i = 0; i < locations.size(); i++) {
+            IndexedCorporation corp = locations.corporation(i);
+            Set<String> names = new LinkedHashSet<>(3);
+            addIfPresent(names, MatchKeys.nameKey(locations.name(i)));
+            addIfPresent(names, MatchKeys.nameKey(corp.getDoingBusinessAs()));
+            addIfPresent(names, MatchKeys.nameKey(corp.getLegalName()));
+
+            String houseNumber = locations.houseNumber(i);
+            String postalKey = BlockingIndex.postalKey(locations.postalCode(i));
+            for (String name : names) {
+                String key = MatchKeys.exactKey(name, houseNumber, postalKey);
+                if (key != null) {
+                    exact.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            String storeKey = MatchKeys.storeKey(locations.storeId(i));
+            if (storeKey != null) {
+                storeIds.computeIfAbsent(storeKey, k -> new ArrayList<>()).add(i);
+            }
+        }
+        return new ExactKeyIndex(locations, toArrays(exact), toArrays(storeIds), aliases);
+    }
+
+    /**
+     * Ordinals of locations sharing the request's composite key.
+     */
+    public int[] exact(String nameKey, String houseNumber, String postalKey) {
+        String key = MatchKeys.exactKey(nameKey, houseNumber, postalKey);
+        return key == null ? EMPTY : byExactKey.getOrDefault(key, EMPTY);
+    }
+
+    /**
+     * Ordinals of locations with the given store id whose corporation is known by {@code nameKey}, or by
+     * its longest whole-token alias prefix.
+     */
+    public int[] storeId(String storeNumber, String nameKey) {
+        String storeKey = MatchKeys.storeKey(storeNumber);
+        if (storeKey == null || nameKey == null) {
+            return EMPTY;
+        }
+        int[] candidates = byStoreId.get(storeKey);
+        if (candidates == null) {
+            return EMPTY;
+        }
+        UUID[] corporations = aliases.longestPrefix(CorporationAliasDictionary.Kind.NAME_KEY, nameKey);
+        if (corporations.length == 0) {
+            return EMPTY;
+        }
+        int[] matches = new int[candidates.length];
+        int size = 0;
+        for (int ordinal : candidates) {
+            UUID corporationId = locations.corporation(ordinal).getId();
+            for (UUID id : corporations) {
+                if (id.equals(corporationId)) {
+                    matches[size++] = ordinal;
+                    break;
+                }
+            }
+        }
+        return size == matches.length ? matches : Arrays.copyOf(matches, size);
+    }
+
+    private static void addIfPresent(Set<String> names, String name) {
+        if (name != null) {
+            names.add(name);
+        }
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            arrays.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).distinct().toArray());
+        }
+        return arrays;
+    }
+}
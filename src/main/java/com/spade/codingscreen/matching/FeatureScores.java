@@ -0,0 +1,50 @@
+package com.spade.codingscreen.matching;
+
+/**
+ * Per-feature breakdown of a candidate's match score, as reported by explain mode.
+ */
+public final class FeatureScores {
+
+    private final int name;
+    private final int address;
+    private final int postalCode;
+    private final int city;
+    private final boolean storeIdMatch;
+    private final double total;
+
+    FeatureScores(int name, int address, int postalCode, int city, boolean storeIdMatch, double total) {
+        this.name = name;
+        this.address = address;
+        this.postalCode = postalCode;
+        this.city = city;
+        this.storeIdMatch = storeIdMatch;
+        this.total = total;
+    }
+
+    public int getName() {
+        return name;
+    }
+
+    public int getAddress() {
+        return address;
+    }
+
+    public int getPostalCode() {
+        return postalCode;
+    }
+
+    public int getCity() {
+        return city;
+    }
+
+    public boolean isStoreIdMatch() {
+        return storeIdMatch;
+    }
+
+    /**
+     * Weighted total, identical to the score the matcher ranks by.
+     */
+    public double getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,471 @@
+package com.spade.codingscreen.matching;
+
+/**
+ * Allocation-free fuzzy string scores with the same results as FuzzyWuzzy's {@code ratio},
+ * {@code partialRatio}, {@code tokenSortRatio} and {@code tokenSetRatio}.
+ * <p>
+ * Every method takes a {@code cutoff} in [0, 100] and returns 0 when the true score is below it. The
+ * cutoff bounds the edit distance worth computing, so the dynamic program only fills a diagonal band
+ * and stops as soon as every cell in a row exceeds that bound. Working arrays live in pooled
+ * scratch buffers that grow to the longest input seen and are then reused.
+ */
+public final class FuzzyScorer {
+
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+    private static final byte REPLACE = 3;
+
+    private static final ScratchPool<Scratch> SCRATCH = new ScratchPool<>(Scratch::new);
+
+    private FuzzyScorer() {
+    }
+
+    /**
+     * Equivalent to {@code FuzzySearch.ratio} on the unprocessed text.
+     */
+    public static int ratio(FuzzyText a, FuzzyText b, int cutoff) {
+        Scratch s = SCRATCH.acquire();
+        try {
+            return ratio(a.raw, 0, a.raw.length, b.raw, 0, b.raw.length, cutoff, s);
+        } finally {
+            SCRATCH.release(s);
+        }
+    }
+
+    /**
+     * Ratio of the processed (lower-cased, punctuation-free) forms.
+     */
+    public static int processedRatio(FuzzyText a, FuzzyText b, int cutoff) {
+        Scratch s = SCRATCH.acquire();
+        try {
+            return ratio(a.processed, 0, a.processed.length, b.processed, 0, b.processed.length, cutoff, s);
+        } finally {
+            SCRATCH.release(s);
+        }
+    }
+
+    /**
+     * Equivalent to {@code FuzzySearch.partialRatio} on the unprocessed text.
+     */
+    public static int partialRatio(FuzzyText a, FuzzyText b, int cutoff) {
+        Scratch s = SCRATCH.acquire();
+        try {
+            return partialRatio(a.raw, b.raw, cutoff, s);
+        } finally {
+            SCRATCH.release(s);
+        }
+    }
+
+    /**
+     * Equivalent to {@code FuzzySearch.tokenSortRatio}.
+     */
+    public static int tokenSortRatio(FuzzyText a, FuzzyText b, int cutoff) {
+        Scratch s = SCRATCH.acquire();
+        try {
+            return ratio(a.sortedTokens, 0, a.sortedTokens.length, b.sortedTokens, 0, b.sortedTokens.length,
+                cutoff, s);
+        } finally {
+            SCRATCH.release(s);
+        }
+    }
+
+    /**
+     * Equivalent to {@code FuzzySearch.tokenSetRatio}.
+     */
+    public static int tokenSetRatio(FuzzyText a, FuzzyText b, int cutoff) {
+        Scratch s = SCRATCH.acquire();
+        try {
+            return tokenSetRatio(a, b, cutoff, s);
+        } finally {
+            SCRATCH.release(s);
+        }
+    }
+
+    private static int tokenSetRatio(FuzzyText a, FuzzyText b, int cutoff, Scratch s) {
+        int capacity = a.distinctTokens.length + b.distinctTokens.length + 1;
+        char[] sect = s.sect = grow(s.sect, capacity);
+        char[] rest1 = s.rest1 = grow(s.rest1, capacity);
+        char[] rest2 = s.rest2 = grow(s.rest2, capacity);
+
+        // Merge the two sorted distinct token lists into intersection and differences.
+        int sectLen = 0;
+        int rest1Len = 0;
+        int rest2Len = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.tokenCount() || j < b.tokenCount()) {
+            int cmp;
+            if (i == a.tokenCount()) {
+                cmp = 1;
+            } else if (j == b.tokenCount()) {
+                cmp = -1;
+            } else {
+                cmp = compare(a.distinctTokens, a.tokenStart(i), a.tokenEnd(i),
+                    b.distinctTokens, b.tokenStart(j), b.tokenEnd(j));
+            }
+            if (cmp == 0) {
+                sectLen = appendToken(sect, sectLen, a.distinctTokens, a.tokenStart(i), a.tokenEnd(i));
+                i++;
+                j++;
+            } else if (cmp < 0) {
+                rest1Len = appendToken(rest1, rest1Len, a.distinctTokens, a.tokenStart(i), a.tokenEnd(i));
+                i++;
+            } else {
+                rest2Len = appendToken(rest2, rest2Len, b.distinctTokens, b.tokenStart(j), b.tokenEnd(j));
+                j++;
+            }
+        }
+
+        char[] combined1 = s.combined1 = grow(s.combined1, capacity);
+        char[] combined2 = s.combined2 = grow(s.combined2, capacity);
+        int combined1Len = combine(combined1, sect, sectLen, rest1, rest1Len);
+        int combined2Len = combine(combined2, sect, sectLen, rest2, rest2Len);
+
+        // The intersection is a prefix of both combined strings, so its two ratios need no edit distance.
+        int best = Math.max(prefixRatio(sectLen, combined1Len), prefixRatio(sectLen, combined2Len));
+        int pairwise = ratio(combined1, 0, combined1Len, combined2, 0, combined2Len, Math.max(cutoff, best + 1), s);
+        best = Math.max(best, pairwise);
+        return best >= cutoff ? best : 0;
+    }
+
+    private static int prefixRatio(int prefixLen, int fullLen) {
+        int lensum = prefixLen + fullLen;
+        return score(lensum, fullLen - prefixLen);
+    }
+
+    private static int ratio(char[] a, int aOff, int aLen, char[] b, int bOff, int bLen, int cutoff, Scratch s) {
+        int lensum = aLen + bLen;
+        if (lensum == 0) {
+            return 0;
+        }
+        int maxDist = maxDistance(lensum, cutoff);
+        if (maxDist < 0) {
+            return 0;
+        }
+        int dist = indelDistance(a, aOff, aLen, b, bOff, bLen, maxDist, s);
+        if (dist > maxDist) {
+            return 0;
+        }
+        int score = score(lensum, dist);
+        return score >= cutoff ? score : 0;
+    }
+
+    private static int partialRatio(char[] s1, char[] s2, int cutoff, Scratch s) {
+        char[] shorter = s1.length <= s2.length ? s1 : s2;
+        char[] longer = s1.length <= s2.length ? s2 : s1;
+        int shortLen = shorter.length;
+        int longLen = longer.length;
+        if (shortLen == 0) {
+            return 0;
+        }
+
+        int opCount = editOps(shorter, longer, s);
+        byte[] types = s.opTypes;
+        int[] sposes = s.opSpos;
+        int[] dposes = s.opDpos;
+
+        double best = -1.0;
+        int spos = 0;
+        int dpos = 0;
+        int k = 0;
+        while (k <= opCount) {
+            boolean tail = k == opCount;
+            if (tail ? (spos < shortLen || dpos < longLen) : (spos < sposes[k] || dpos < dposes[k])) {
+                best = Math.max(best, windowRatio(shorter, longer, spos, dpos, cutoff, s));
+                if (best > 0.995) {
+                    return 100;
+                }
+            }
+            if (tail) {
+                break;
+            }
+            spos = sposes[k];
+            dpos = dposes[k];
+            byte type = types[k];
+            do {
+                if (type != INSERT) {
+                    spos++;
+                }
+                if (type != DELETE) {
+                    dpos++;
+                }
+                k++;
+            } while (k < opCount && types[k] == type && spos == sposes[k] && dpos == dposes[k]);
+        }
+        // Trailing sentinel block at (shortLen, longLen).
+        best = Math.max(best, windowRatio(shorter, longer, shortLen, longLen, cutoff, s));
+        if (best > 0.995) {
+            return 100;
+        }
+
+        int score = (int) Math.round(100 * best);
+        return score >= cutoff ? score : 0;
+    }
+
+    /**
+     * Ratio of the shorter string against the window of the longer one aligned by a matching block,
+     * or -1 when it falls below the cutoff.
+     */
+    private static double windowRatio(char[] shorter, char[] longer, int spos, int dpos, int cutoff, Scratch s) {
+        int start = Math.max(dpos - spos, 0);
+        int end = Math.min(start + shorter.length, longer.length);
+        int lensum = shorter.length + (end - start);
+        int maxDist = maxDistance(lensum, cutoff);
+        if (maxDist < 0) {
+            return -1.0;
+        }
+        int dist = indelDistance(shorter, 0, shorter.length, longer, start, end - start, maxDist, s);
+        if (dist > maxDist) {
+            return -1.0;
+        }
+        return (lensum - dist) / (double) lensum;
+    }
+
+    private static int score(int lensum, int dist) {
+        if (lensum == 0) {
+            return 0;
+        }
+        return (int) Math.round(100 * ((lensum - dist) / (double) lensum));
+    }
+
+    /**
+     * Largest indel distance that can still round to {@code cutoff} or above (with one unit of slack
+     * for rounding), or -1 when no distance can.
+     */
+    private static int maxDistance(int lensum, int cutoff) {
+        if (cutoff <= 0) {
+            return lensum;
+        }
+        return Math.min(lensum, (int) Math.floor(lensum * (1.0 - (cutoff - 0.5) / 100.0)) + 1);
+    }
+
+    /**
+     * Insert/delete edit distance (substitution counts as both), which is what FuzzyWuzzy's ratio is
+     * built on. Only cells within {@code maxDist} of the diagonal are computed; returns
+     * {@code maxDist + 1} once the distance is known to exceed {@code maxDist}.
+     */
+    static int indelDistance(char[] a, int aOff, int aLen, char[] b, int bOff, int bLen, int maxDist, Scratch s) {
+        while (aLen > 0 && bLen > 0 && a[aOff] == b[bOff]) {
+            aOff++;
+            bOff++;
+            aLen--;
+            bLen--;
+        }
+        while (aLen > 0 && bLen > 0 && a[aOff + aLen - 1] == b[bOff + bLen - 1]) {
+            aLen--;
+            bLen--;
+        }
+        int limit = maxDist + 1;
+        if (aLen == 0 || bLen == 0) {
+            return Math.min(aLen + bLen, limit);
+        }
+        if (Math.abs(aLen - bLen) > maxDist) {
+            return limit;
+        }
+
+        int[] row = s.row = grow(s.row, bLen + 1);
+        for (int j = 0; j <= bLen; j++) {
+            row[j] = Math.min(j, limit);
+        }
+        for (int i = 1; i <= aLen; i++) {
+            int lo = Math.max(1, i - maxDist);
+            int hi = Math.min(bLen, i + maxDist);
+            int diag = row[lo - 1];
+            int left = lo == 1 ? Math.min(i, limit) : limit;
+            row[lo - 1] = left;
+            int rowMin = left;
+            char ca = a[aOff + i - 1];
+            for (int j = lo; j <= hi; j++) {
+                int up = row[j];
+                int value = ca == b[bOff + j - 1] ? diag : Math.min(Math.min(up, left) + 1, limit);
+                diag = up;
+                row[j] = value;
+                left = value;
+                if (value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if (rowMin >= limit) {
+                return limit;
+            }
+        }
+        return row[bLen];
+    }
+
+    /**
+     * Levenshtein edit operations turning {@code s1} into {@code s2}, following the same cost-matrix
+     * walk as FuzzyWuzzy's DiffUtils, so the derived matching blocks agree.
+     * Operations are written to the scratch op arrays; returns their count.
+     */
+    private static int editOps(char[] s1, char[] s2, Scratch s) {
+        int len1 = s1.length;
+        int len2 = s2.length;
+        int prefix = 0;
+        while (len1 > 0 && len2 > 0 && s1[prefix] == s2[prefix]) {
+            len1--;
+            len2--;
+            prefix++;
+        }
+        while (len1 > 0 && len2 > 0 && s1[prefix + len1 - 1] == s2[prefix + len2 - 1]) {
+            len1--;
+            len2--;
+        }
+
+        int rows = len1 + 1;
+        int cols = len2 + 1;
+        int[] m = s.matrix = grow(s.matrix, rows * cols);
+        for (int j = 0; j < cols; j++) {
+            m[j] = j;
+        }
+        for (int i = 1; i < rows; i++) {
+            m[i * cols] = i;
+        }
+        for (int i = 1; i < rows; i++) {
+            int prev = (i - 1) * cols;
+            int p = i * cols + 1;
+            int end = i * cols + cols - 1;
+            char c1 = s1[prefix + i - 1];
+            int c2 = prefix;
+            int x = i;
+            while (p <= end) {
+                int c3 = m[prev++] + (c1 != s2[c2++] ? 1 : 0);
+                x++;
+                if (x > c3) {
+                    x = c3;
+                }
+                c3 = m[prev] + 1;
+                if (x > c3) {
+                    x = c3;
+                }
+                m[p++] = x;
+            }
+        }
+
+        int count = m[rows * cols - 1];
+        s.opTypes = grow(s.opTypes, count);
+        s.opSpos = grow(s.opSpos, count);
+        s.opDpos = grow(s.opDpos, count);
+        byte[] types = s.opTypes;
+        int[] sposes = s.opSpos;
+        int[] dposes = s.opDpos;
+
+        int i = rows - 1;
+        int j = cols - 1;
+        int p = rows * cols - 1;
+        int pos = count;
+        int dir = 0;
+        while (i != 0 || j != 0) {
+            // Matching characters are kept without recording an operation.
+            if (i != 0 && j != 0 && m[p] == m[p - cols - 1] && s1[prefix + i - 1] == s2[prefix + j - 1]) {
+                i--;
+                j--;
+                p -= cols + 1;
+                dir = 0;
+                continue;
+            }
+            // Otherwise prefer continuing in the same direction.
+            if (dir < 0 && j != 0 && m[p] == m[p - 1] + 1) {
+                pos--;
+                types[pos] = INSERT;
+                sposes[pos] = i + prefix;
+                dposes[pos] = --j + prefix;
+                p--;
+                continue;
+            }
+            if (dir > 0 && i != 0 && m[p] == m[p - cols] + 1) {
+                pos--;
+                types[pos] = DELETE;
+                sposes[pos] = --i + prefix;
+                dposes[pos] = j + prefix;
+                p -= cols;
+                continue;
+            }
+            if (i != 0 && j != 0 && m[p] == m[p - cols - 1] + 1) {
+                pos--;
+                types[pos] = REPLACE;
+                sposes[pos] = --i + prefix;
+                dposes[pos] = --j + prefix;
+                p -= cols + 1;
+                dir = 0;
+                continue;
+            }
+            if (dir == 0 && j != 0 && m[p] == m[p - 1] + 1) {
+                pos--;
+                types[pos] = INSERT;
+                sposes[pos] = i + prefix;
+                dposes[pos] = --j + prefix;
+                p--;
+                dir = -1;
+                continue;
+            }
+            if (dir == 0 && i != 0 && m[p] == m[p - cols] + 1) {
+                pos--;
+                types[pos] = DELETE;
+                sposes[pos] = --i + prefix;
+                dposes[pos] = j + prefix;
+                p -= cols;
+                dir = 1;
+                continue;
+            }
+            throw new IllegalStateException("Lost in the edit cost matrix");
+        }
+        return count;
+    }
+
+    private static int compare(char[] a, int aStart, int aEnd, char[] b, int bStart, int bEnd) {
+        int aLen = aEnd - aStart;
+        int bLen = bEnd - bStart;
+        int n = Math.min(aLen, bLen);
+        for (int k = 0; k < n; k++) {
+            char ca = a[aStart + k];
+            char cb = b[bStart + k];
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+        return aLen - bLen;
+    }
+
+    private static int appendToken(char[] target, int length, char[] source, int start, int end) {
+        if (length > 0) {
+            target[length++] = ' ';
+        }
+        System.arraycopy(source, start, target, length, end - start);
+        return length + (end - start);
+    }
+
+    private static int combine(char[] target, char[] sect, int sectLen, char[] rest, int restLen) {
+        System.arraycopy(sect, 0, target, 0, sectLen);
+        int length = sectLen;
+        if (sectLen > 0 && restLen > 0) {
+            target[length++] = ' ';
+        }
+        System.arraycopy(rest, 0, target, length, restLen);
+        return length + restLen;
+    }
+
+    private static char[] grow(char[] buffer, int size) {
+        return buffer.length >= size ? buffer : new char[Math.max(size, buffer.length * 2)];
+    }
+
+    private static int[] grow(int[] buffer, int size) {
+        return buffer.length >= size ? buffer : new int[Math.max(size, buffer.length * 2)];
+    }
+
+    private static byte[] grow(byte[] buffer, int size) {
+        return buffer.length >= size ? buffer : new byte[Math.max(size, buffer.length * 2)];
+    }
+
+    static final class Scratch {
+        int[] row = new int[64];
+        int[] matrix = new int[1024];
+        byte[] opTypes = new byte[64];
+        int[] opSpos = new int[64];
+        int[] opDpos = new int[64];
+        char[] sect = new char[64];
+        char[] rest1 = new char[64];
+        char[] rest2 = new char[64];
+        char[] combined1 = new char[128];
+        char[] combined2 = new char[128];
+    }
+}
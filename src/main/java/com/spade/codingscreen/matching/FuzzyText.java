@@ -0,0 +1,89 @@
+package com.spade.codingscreen.matching;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * A string pre-normalized into every form {@link FuzzyScorer} needs, so scoring never re-processes it.
+ * <p>
+ * Processing mirrors FuzzyWuzzy's default string function: non-word characters become spaces, the
+ * result is lower-cased and trimmed. Token forms are built from the processed text split on spaces.
+ */
+public final class FuzzyText {
+
+    private static final Pattern NON_WORD = Pattern.compile("\\W", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static final FuzzyText EMPTY = of("");
+
+    final char[] raw;
+    final char[] processed;
+    final char[] sortedTokens;
+    final char[] distinctTokens;
+    final int[] tokenStarts;
+
+    private FuzzyText(char[] raw, char[] processed, char[] sortedTokens, char[] distinctTokens, int[] tokenStarts) {
+        this.raw = raw;
+        this.processed = processed;
+        this.sortedTokens = sortedTokens;
+        this.distinctTokens = distinctTokens;
+        this.tokenStarts = tokenStarts;
+    }
+
+    public static FuzzyText of(String text) {
+        if (text == null) {
+            text = "";
+        }
+        String processed = NON_WORD.matcher(text).replaceAll(" ").toLowerCase(Locale.ROOT).trim();
+        String[] tokens = processed.isEmpty() ? new String[0] : WHITESPACE.split(processed);
+
+        String[] sorted = tokens.clone();
+        Arrays.sort(sorted);
+        String sortedJoined = String.join(" ", sorted);
+
+        TreeSet<String> distinct = new TreeSet<>(Arrays.asList(tokens));
+        int[] starts = new int[distinct.size()];
+        StringBuilder joined = new StringBuilder(processed.length());
+        int i = 0;
+        for (String token : distinct) {
+            if (joined.length() > 0) {
+                joined.append(' ');
+            }
+            starts[i++] = joined.length();
+            joined.append(token);
+        }
+
+        return new FuzzyText(text.toCharArray(), processed.toCharArray(), sortedJoined.toCharArray(),
+            joined.toString().toCharArray(), starts);
+    }
+
+    public boolean isEmpty() {
+        return processed.length == 0;
+    }
+
+    /**
+     * The processed form as a string, e.g. "st louis" for "St. Louis".
+     */
+    String processedText() {
+        return new String(processed);
+    }
+
+    int tokenCount() {
+        return tokenStarts.length;
+    }
+
+    int tokenStart(int token) {
+        return tokenStarts[token];
+    }
+
+    int tokenEnd(int token) {
+        return token + 1 < tokenStarts.length ? tokenStarts[token + 1] - 1 : distinctTokens.length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(raw);
+    }
+}
@@ -0,0 +1,64 @@
+package com.spade.codingscreen.matching;
+
+import com.spade.codingscreen.model.Corporation;
+
+import java.util.UUID;
+
+/**
+ * Immutable, detached view of a {@link Corporation} held by a {@link MatchIndex}.
+ */
+public final class IndexedCorporation {
+
+    private final UUID id;
+    private final String legalName;
+    private final String doingBusinessAs;
+    private final String website;
+    private final FuzzyText legalNameText;
+    private final FuzzyText doingBusinessAsText;
+
+    public IndexedCorporation(UUID id, String legalName, String doingBusinessAs, String website) {
+        this.id = id;
+        this.legalName = legalName;
+        this.doingBusinessAs = doingBusinessAs;
+        this.website = website;
+        this.legalNameText = FuzzyText.of(legalName);
+        this.doingBusinessAsText = FuzzyText.of(doingBusinessAs);
+    }
+
+    public static IndexedCorporation from(Corporation corporation) {
+        return new IndexedCorporation(corporation.getId(), corporation.getLegalName(),
+            corporation.getDoingBusinessAs(), corporation.getWebsite());
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getLegalName() {
+        return legalName;
+    }
+
+    public String getDoingBusinessAs() {
+        return doingBusinessAs;
+    }
+
+    public String getWebsite() {
+        return website;
+    }
+
+    public FuzzyText getLegalNameText() {
+        return legalNameText;
+    }
+
+    public FuzzyText getDoingBusinessAsText() {
+        return doingBusinessAsText;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedCorporation{" +
+                "id=" + id +
+                ", doingBusinessAs='" + doingBusinessAs + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,92 @@
+package com.spade.codingscreen.matching;
+
+import java.util.UUID;
+
+/**
+ * Immutable, detached view of one location in a {@link LocationStore}, materialized for match results.
+ * Carries a direct reference to its corporation so callers never touch a Hibernate proxy.
+ */
+public final class IndexedLocation {
+
+    private final UUID id;
+    private final String name;
+    private final String streetAddress;
+    private final String city;
+    private final String state;
+    private final String postalCode;
+    private final String storeId;
+    private final Double lat;
+    private final Double lon;
+    private final String h3Cell;
+    private final IndexedCorporation corporation;
+
+    public IndexedLocation(UUID id, String name, String streetAddress, String city, String state,
+                           String postalCode, String storeId, Double lat, Double lon, String h3Cell,
+                           IndexedCorporation corporation) {
+        this.id = id;
+        this.name = name;
+        this.streetAddress = streetAddress;
+        this.city = city;
+        this.state = state;
+        this.postalCode = postalCode;
+        this.storeId = storeId;
+        this.lat = lat;
+        this.lon = lon;
+        this.h3Cell = h3Cell;
+        this.corporation = corporation;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getStreetAddress() {
+        return streetAddress;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public Double getLat() {
+        return lat;
+    }
+
+    public Double getLon() {
+        return lon;
+    }
+
+    public String getH3Cell() {
+        return h3Cell;
+    }
+
+    public IndexedCorporation getCorporation() {
+        return corporation;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedLocation{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", city='" + city + '\'' +
+                ", state='" + state + '\'' +
+                '}';
+    }
+}
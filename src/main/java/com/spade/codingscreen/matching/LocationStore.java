@@ -0,0 +1,354 @@
+package com.spade.codingscreen.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Column-oriented store of every location in a {@link MatchIndex}, addressed by ordinal.
+ * <p>
+ * Each attribute is a primitive array: ids as two {@code long} halves, coordinates as {@code double}
+ * (NaN when missing), postal code, city, state and corporation as dense {@link StringDictionary} ids, and names,
+ * streets, store ids and H3 cells as refs into shared UTF-8 {@link TextArena}s, names interned so a
+ * chain's name is stored once. Scoring forms ({@link FuzzyText}) are precomputed once per distinct name,
+ * city and normalized street, and the normalized house number is kept in the arena. Matching reads the
+ * columns directly, and an {@link IndexedLocation} is materialized only for a result.
+ * <p>
+ * Cities that process to the same text (e.g. "ROCHESTER" and "Rochester") share a city form id, so an
+ * exact city match is one int compare against {@link #cityForm(FuzzyText)} of the request.
+ */
+public final class LocationStore {
+
+    private final int size;
+    private final long[] idHigh;
+    private final long[] idLow;
+    private final double[] lat;
+    private final double[] lon;
+    private final int[] corporation;
+    private final IndexedCorporation[] corporations;
+    private final int[] postalCode;
+    private final StringDictionary postalCodes;
+    private final int[] city;
+    private final StringDictionary cities;
+    private final int[] cityFormOf;
+    private final StringDictionary cityForms;
+    private final FuzzyText[] cityTexts;
+    private final int[] state;
+    private final StringDictionary states;
+    private final int[] name;
+    private final TextArena names;
+    private final FuzzyText[] nameTexts;
+    private final int[] street;
+    private final int[] streetForm;
+    private final FuzzyText[] streetTexts;
+    private final int[] houseNumber;
+    private final int[] storeId;
+    private final int[] h3Cell;
+    private final TextArena text;
+    private final int[] ordinalsById;
+
+    private LocationStore(Builder b) {
+        this.size = b.size;
+        this.idHigh = Arrays.copyOf(b.idHigh, size);
+        this.idLow = Arrays.copyOf(b.idLow, size);
+        this.lat = Arrays.copyOf(b.lat, size);
+        this.lon = Arrays.copyOf(b.lon, size);
+        this.corporation = Arrays.copyOf(b.corporation, size);
+        this.corporations = b.corporations.toArray(new IndexedCorporation[0]);
+        this.postalCode = Arrays.copyOf(b.postalCode, size);
+        this.postalCodes = b.postalCodes;
+        this.city = Arrays.copyOf(b.city, size);
+        this.cities = b.cities;
+        this.state = Arrays.copyOf(b.state, size);
+        this.states = b.states;
+        this.name = Arrays.copyOf(b.name, size);
+        this.names = b.names.build();
+        this.street = Arrays.copyOf(b.street, size);
+        this.streetForm = Arrays.copyOf(b.streetForm, size);
+        this.streetTexts = b.streetTexts.toArray(new FuzzyText[0]);
+        this.houseNumber = Arrays.copyOf(b.houseNumber, size);
+        this.storeId = Arrays.copyOf(b.storeId, size);
+        this.h3Cell = Arrays.copyOf(b.h3Cell, size);
+        this.text = b.text.build();
+
+        this.cityFormOf = new int[cities.size()];
+        this.cityForms = new StringDictionary(cities.size());
+        List<FuzzyText> formTexts = new ArrayList<>(cities.size());
+        for (int i = 0; i < cities.size(); i++) {
+            FuzzyText cityText = FuzzyText.of(cities.decode(i));
+            cityFormOf[i] = cityText.isEmpty() ? StringDictionary.NONE : cityForms.encode(cityText.processedText());
+            if (cityFormOf[i] == formTexts.size()) {
+                formTexts.add(cityText);
+            }
+        }
+        this.cityTexts = formTexts.toArray(new FuzzyText[0]);
+        this.nameTexts = new FuzzyText[b.names.size()];
+        for (int i = 0; i < nameTexts.length; i++) {
+            nameTexts[i] = FuzzyText.of(names.get(i));
+        }
+
+        this.ordinalsById = new int[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> compareId(idHigh[x], idLow[x], idHigh[y], idLow[y]));
+        for (int i = 0; i < size; i++) {
+            ordinalsById[i] = order[i];
+        }
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Materializes a detached view of the location at {@code ordinal}.
+     */
+    public IndexedLocation get(int ordinal) {
+        return new IndexedLocation(id(ordinal), name(ordinal), streetAddress(ordinal), city(ordinal),
+            state(ordinal), postalCode(ordinal), storeId(ordinal), boxed(lat[ordinal]), boxed(lon[ordinal]),
+            h3Cell(ordinal), corporation(ordinal));
+    }
+
+    /**
+     * Ordinal of the location with {@code id}, or -1.
+     */
+    public int ordinalOf(UUID id) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        int lowIndex = 0;
+        int highIndex = size - 1;
+        while (lowIndex <= highIndex) {
+            int mid = (lowIndex + highIndex) >>> 1;
+            int ordinal = ordinalsById[mid];
+            int cmp = compareId(idHigh[ordinal], idLow[ordinal], high, low);
+            if (cmp < 0) {
+                lowIndex = mid + 1;
+            } else if (cmp > 0) {
+                highIndex = mid - 1;
+            } else {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    public UUID id(int ordinal) {
+        return new UUID(idHigh[ordinal], idLow[ordinal]);
+    }
+
+    public String name(int ordinal) {
+        return names.get(name[ordinal]);
+    }
+
+    public String streetAddress(int ordinal) {
+        return text.get(street[ordinal]);
+    }
+
+    public String city(int ordinal) {
+        return cities.decode(city[ordinal]);
+    }
+
+    public String state(int ordinal) {
+        return states.decode(state[ordinal]);
+    }
+
+    public String postalCode(int ordinal) {
+        return postalCodes.decode(postalCode[ordinal]);
+    }
+
+    public String storeId(int ordinal) {
+        return text.get(storeId[ordinal]);
+    }
+
+    /**
+     * Whether the location's store id equals {@code value}, without decoding it.
+     */
+    public boolean storeIdEquals(int ordinal, String value) {
+        return value != null && text.matches(storeId[ordinal], value);
+    }
+
+    public String h3Cell(int ordinal) {
+        return text.get(h3Cell[ordinal]);
+    }
+
+    /**
+     * Latitude, or NaN when the location has no coordinates.
+     */
+    public double lat(int ordinal) {
+        return lat[ordinal];
+    }
+
+    /**
+     * Longitude, or NaN when the location has no coordinates.
+     */
+    public double lon(int ordinal) {
+        return lon[ordinal];
+    }
+
+    public IndexedCorporation corporation(int ordinal) {
+        return corporations[corporation[ordinal]];
+    }
+
+    public FuzzyText nameText(int ordinal) {
+        return name[ordinal] == TextArena.NULL ? FuzzyText.EMPTY : nameTexts[name[ordinal]];
+    }
+
+    public FuzzyText cityText(int ordinal) {
+        int form = cityForm(ordinal);
+        return form == StringDictionary.NONE ? FuzzyText.EMPTY : cityTexts[form];
+    }
+
+    /**
+     * City form id of the location, or {@link StringDictionary#NONE} when it has no city.
+     */
+    public int cityForm(int ordinal) {
+        return city[ordinal] == StringDictionary.NONE ? StringDictionary.NONE : cityFormOf[city[ordinal]];
+    }
+
+    /**
+     * City form id of {@code city}, or {@link StringDictionary#NONE} when no location has that city.
+     */
+    public int cityForm(FuzzyText city) {
+        return city.isEmpty() ? StringDictionary.NONE : cityForms.idOf(city.processedText());
+    }
+
+    /**
+     * The {@link NormalizedAddress#getStreet() normalized street}.
+     */
+    public FuzzyText streetText(int ordinal) {
+        return streetTexts[streetForm[ordinal]];
+    }
+
+    /**
+     * The {@link NormalizedAddress#getHouseNumber() normalized house number}, or null.
+     */
+    public String houseNumber(int ordinal) {
+        return text.get(houseNumber[ordinal]);
+    }
+
+    /**
+     * Whether the location and {@code value} both have a house number and the two differ.
+     */
+    public boolean houseNumberConflicts(int ordinal, String value) {
+        return value != null && houseNumber[ordinal] != TextArena.NULL && !text.matches(houseNumber[ordinal], value);
+    }
+
+    private static Double boxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static int compareId(long highA, long lowA, long highB, long lowB) {
+        int cmp = Long.compare(highA, highB);
+        return cmp != 0 ? cmp : Long.compare(lowA, lowB);
+    }
+
+    /**
+     * Appends locations column by column; {@link #build()} trims the columns to size.
+     */
+    public static final class Builder {
+
+        private int size;
+        private long[] idHigh;
+        private long[] idLow;
+        private double[] lat;
+        private double[] lon;
+        private int[] corporation;
+        private int[] postalCode;
+        private int[] city;
+        private int[] state;
+        private int[] name;
+        private int[] street;
+        private int[] streetForm;
+        private int[] houseNumber;
+        private int[] storeId;
+        private int[] h3Cell;
+        private final Map<UUID, Integer> corporationIds = new HashMap<>();
+        private final List<IndexedCorporation> corporations = new ArrayList<>();
+        private final StringDictionary postalCodes = new StringDictionary();
+        private final StringDictionary cities = new StringDictionary();
+        private final StringDictionary states = new StringDictionary();
+        private final StringDictionary streetForms = new StringDictionary();
+        private final List<FuzzyText> streetTexts = new ArrayList<>();
+        private final TextArena.Builder names = TextArena.builder();
+        private final TextArena.Builder text = TextArena.builder();
+
+        private Builder(int expectedSize) {
+            allocate(Math.max(expectedSize, 16));
+        }
+
+        /**
+         * Appends a location and returns its ordinal.
+         */
+        public int add(UUID id, String name, String streetAddress, String city, String state, String postalCode,
+                       String storeId, Double lat, Double lon, String h3Cell, IndexedCorporation corporation) {
+            if (size == idHigh.length) {
+                allocate(size * 2);
+            }
+            int ordinal = size++;
+            this.idHigh[ordinal] = id.getMostSignificantBits();
+            this.idLow[ordinal] = id.getLeastSignificantBits();
+            this.lat[ordinal] = lat == null || lon == null ? Double.NaN : lat;
+            this.lon[ordinal] = lat == null || lon == null ? Double.NaN : lon;
+            this.corporation[ordinal] = corporationIds.computeIfAbsent(corporation.getId(), key -> {
+                corporations.add(corporation);
+                return corporations.size() - 1;
+            });
+            this.postalCode[ordinal] = postalCodes.encode(postalCode);
+            this.city[ordinal] = cities.encode(city);
+            this.state[ordinal] = states.encode(state);
+            this.name[ordinal] = names.intern(name);
+            this.street[ordinal] = text.add(streetAddress);
+            this.storeId[ordinal] = text.add(storeId);
+            this.h3Cell[ordinal] = text.add(h3Cell);
+            NormalizedAddress address = AddressNormalizer.normalize(streetAddress);
+            this.streetForm[ordinal] = streetForms.encode(address.getStreet().toString());
+            if (streetForm[ordinal] == streetTexts.size()) {
+                streetTexts.add(address.getStreet());
+            }
+            this.houseNumber[ordinal] = text.add(address.getHouseNumber());
+            return ordinal;
+        }
+
+        public LocationStore build() {
+            return new LocationStore(this);
+        }
+
+        private void allocate(int capacity) {
+            idHigh = grow(idHigh, capacity);
+            idLow = grow(idLow, capacity);
+            lat = grow(lat, capacity);
+            lon = grow(lon, capacity);
+            corporation = grow(corporation, capacity);
+            postalCode = grow(postalCode, capacity);
+            city = grow(city, capacity);
+            state = grow(state, capacity);
+            name = grow(name, capacity);
+            street = grow(street, capacity);
+            streetForm = grow(streetForm, capacity);
+            houseNumber = grow(houseNumber, capacity);
+            storeId = grow(storeId, capacity);
+            h3Cell = grow(h3Cell, capacity);
+        }
+
+        private static long[] grow(long[] column, int capacity) {
+            return column == null ? new long[capacity] : Arrays.copyOf(column, capacity);
+        }
+
+        private static double[] grow(double[] column, int capacity) {
+            return column == null ? new double[capacity] : Arrays.copyOf(column, capacity);
+        }
+
+        private static int[] grow(int[] column, int capacity) {
+            return column == null ? new int[capacity] : Arrays.copyOf(column, capacity);
+        }
+    }
+}
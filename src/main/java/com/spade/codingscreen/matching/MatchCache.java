@@ -0,0 +1,101 @@
+package com.spade.codingscreen.matching;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spade.codingscreen.dto.MerchantRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Size-bounded cache of match outcomes in front of {@link MerchantMatcher}.
+ * Backed by Caffeine, whose W-TinyLFU eviction keeps the frequently repeated merchants resident.
+ * <p>
+ * Entries store only the resolved location id (or a miss) and are keyed on the
+ * {@link MatchIndex} version, so a rebuilt index can never be served a result computed against an
+ * older one; the old generation is dropped as soon as a newer index is seen.
+ * Statistics are published under the {@code matching.results} cache name.
+ */
+@Component
+public class MatchCache {
+
+    static final String CACHE_NAME = "matching.results";
+
+    private final Cache<MatchCacheKey, CachedMatch> cache;
+
+    private volatile long indexVersion = -1;
+
+    public MatchCache(MeterRegistry meterRegistry,
+                      @Value("${matching.cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached outcome for {@code request} against {@code index}, computing it with
+     * {@code matcher} on a miss.
+     */
+    public Optional<MatchResult> get(MatchIndex index, MerchantRequest request,
+                                     Function<MerchantRequest, Optional<MatchResult>> matcher) {
+        long version = index.getVersion();
+        if (version > indexVersion) {
+            invalidateOlderThan(version);
+        }
+        CachedMatch cached = cache.get(MatchCacheKey.of(version, request),
+            key -> CachedMatch.of(matcher.apply(request)));
+        return cached.resolve(index);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private synchronized void invalidateOlderThan(long version) {
+        if (version > indexVersion) {
+            indexVersion = version;
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Id-only match outcome; {@link #MISS} records that nothing cleared the threshold.
+     */
+    private static final class CachedMatch {
+
+        static final CachedMatch MISS = new CachedMatch(null, 0, MatchTier.NONE);
+
+        private final UUID locationId;
+        private final double score;
+        private final MatchTier tier;
+
+        private CachedMatch(UUID locationId, double score, MatchTier tier) {
+            this.locationId = locationId;
+            this.score = score;
+            this.tier = tier;
+        }
+
+        static CachedMatch of(Optional<MatchResult> result) {
+            if (result.isEmpty()) {
+                return MISS;
+            }
+            MatchResult match = result.get();
+            return new CachedMatch(match.getLocation().getId(), match.getScore(), match.getTier());
+        }
+
+        Optional<MatchResult> resolve(MatchIndex index) {
+            if (locationId == null) {
+                return Optional.empty();
+            }
+            IndexedLocation location = index.getLocation(locationId);
+            return location == null ? Optional.empty() : Optional.of(new MatchResult(location, score, tier));
+        }
+    }
+}
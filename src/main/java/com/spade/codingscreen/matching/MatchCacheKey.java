@@ -0,0 +1,65 @@
+package com.spade.codingscreen.matching;
+
+import com.spade.codingscreen.dto.MerchantRequest;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Cache key for a merchant request against one {@link MatchIndex} version.
+ * Text fields are trimmed and lower-cased, which the matcher is insensitive to; the postal code is only
+ * trimmed because postal scoring compares it verbatim.
+ */
+final class MatchCacheKey {
+
+    private final long indexVersion;
+    private final String merchantName;
+    private final String address;
+    private final String city;
+    private final String region;
+    private final String postalCode;
+    private final int hash;
+
+    private MatchCacheKey(long indexVersion, String merchantName, String address, String city, String region,
+                          String postalCode) {
+        this.indexVersion = indexVersion;
+        this.merchantName = merchantName;
+        this.address = address;
+        this.city = city;
+        this.region = region;
+        this.postalCode = postalCode;
+        this.hash = Objects.hash(indexVersion, merchantName, address, city, region, postalCode);
+    }
+
+    static MatchCacheKey of(long indexVersion, MerchantRequest request) {
+        return new MatchCacheKey(indexVersion,
+            fold(request.getMerchantName()),
+            fold(request.getAddress()),
+            fold(request.getCity()),
+            fold(request.getRegion()),
+            request.getPostalCode() == null ? null : request.getPostalCode().trim());
+    }
+
+    private static String fold(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MatchCacheKey)) return false;
+        MatchCacheKey that = (MatchCacheKey) o;
+        return indexVersion == that.indexVersion
+            && hash == that.hash
+            && Objects.equals(merchantName, that.merchantName)
+            && Objects.equals(address, that.address)
+            && Objects.equals(city, that.city)
+            && Objects.equals(region, that.region)
+            && Objects.equals(postalCode, that.postalCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
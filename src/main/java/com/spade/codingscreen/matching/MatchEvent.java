@@ -0,0 +1,93 @@
+package com.spade.codingscreen.matching;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one uncached match request: the merchant, how many candidates were scored, the
+ * {@link MatchTier} that resolved it and the best score seen, with the matching time as the event duration.
+ * <p>
+ * {@link MerchantMatcher} only allocates the event, and its {@link SlowMatchEvent} twin, while a recording
+ * has one of them enabled; otherwise tracing costs two enabled checks per uncached request.
+ */
+@Name(MatchEvent.NAME)
+@Label("Match")
+@Category({"Spade", "Matching"})
+@Description("An uncached merchant request resolved by the matcher")
+@StackTrace(false)
+public final class MatchEvent extends Event {
+
+    public static final String NAME = "com.spade.codingscreen.Match";
+
+    private static final EventType MATCH = EventType.getEventType(MatchEvent.class);
+    private static final EventType SLOW_MATCH = EventType.getEventType(SlowMatchEvent.class);
+
+    @Label("Merchant Name")
+    String merchantName;
+
+    @Label("Postal Code")
+    String postalCode;
+
+    @Label("Candidates")
+    @Description("Candidate locations scored across all cascade stages")
+    int candidates;
+
+    @Label("Tier")
+    String tier;
+
+    @Label("Best Score")
+    double bestScore = Double.NaN;
+
+    private transient SlowMatchEvent slow;
+
+    /**
+     * A started event when a recording enables match or slow-match events, otherwise null.
+     */
+    static MatchEvent startIfEnabled() {
+        if (!MATCH.isEnabled() && !SLOW_MATCH.isEnabled()) {
+            return null;
+        }
+        MatchEvent event = new MatchEvent();
+        event.slow = new SlowMatchEvent();
+        event.begin();
+        event.slow.begin();
+        return event;
+    }
+
+    /**
+     * Counts a scored block of {@code candidates} whose best score was {@code score}.
+     */
+    void scored(int candidates, double score) {
+        this.candidates += candidates;
+        if (!(score <= bestScore)) {
+            bestScore = score;
+        }
+    }
+
+    /**
+     * Ends both events and commits whichever the recording settings (enabled, threshold) accept.
+     */
+    void finish(MatchQuery query, MatchResult result) {
+        end();
+        slow.end();
+        merchantName = query.getRequest().getMerchantName();
+        postalCode = query.getRequest().getPostalCode();
+        tier = (result == null ? MatchTier.NONE : result.getTier()).getTagValue();
+        if (shouldCommit()) {
+            commit();
+        }
+        if (slow.shouldCommit()) {
+            slow.merchantName = merchantName;
+            slow.postalCode = postalCode;
+            slow.candidates = candidates;
+            slow.tier = tier;
+            slow.bestScore = bestScore;
+            slow.commit();
+        }
+    }
+}
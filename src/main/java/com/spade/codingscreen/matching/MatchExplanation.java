@@ -0,0 +1,51 @@
+package com.spade.codingscreen.matching;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A match outcome together with the best-scoring candidates seen while resolving it.
+ */
+public final class MatchExplanation {
+
+    private final Optional<MatchResult> result;
+    private final List<Candidate> candidates;
+
+    MatchExplanation(Optional<MatchResult> result, List<Candidate> candidates) {
+        this.result = result;
+        this.candidates = candidates;
+    }
+
+    public Optional<MatchResult> getResult() {
+        return result;
+    }
+
+    /**
+     * Candidates ordered best first.
+     */
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * A scored candidate location.
+     */
+    public static final class Candidate {
+
+        private final IndexedLocation location;
+        private final FeatureScores features;
+
+        Candidate(IndexedLocation location, FeatureScores features) {
+            this.location = location;
+            this.features = features;
+        }
+
+        public IndexedLocation getLocation() {
+            return location;
+        }
+
+        public FeatureScores getFeatures() {
+            return features;
+        }
+    }
+}
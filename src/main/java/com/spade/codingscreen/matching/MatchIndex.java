@@ -0,0 +1,187 @@
+package com.spade.codingscreen.matching;
+
+import com.spade.codingscreen.model.Corporation;
+import com.spade.codingscreen.model.Location;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable in-memory snapshot of all locations and corporations used for matching.
+ * Built once from the database, or read back from a {@link MatchIndexFile}; queries against it never
+ * touch JPA.
+ */
+public final class MatchIndex {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private static final MatchIndex EMPTY = new MatchIndex(LocationStore.builder(0).build(), Map.of(), null, null);
+
+    private final long version;
+    private final LocationStore locations;
+    private final Map<UUID, int[]> ordinalsByCorporation;
+    private final Map<UUID, IndexedCorporation> corporations;
+    private final BlockingIndex blockingIndex;
+    private final TrigramIndex trigramIndex;
+    private final PhoneticIndex phoneticIndex;
+    private final SpatialIndex spatialIndex;
+    private final CorporationAliasDictionary aliasDictionary;
+    private final ExactKeyIndex exactKeyIndex;
+
+    private MatchIndex(LocationStore locations, Map<UUID, IndexedCorporation> corporations,
+                       BlockingIndex blockingIndex, TrigramIndex trigramIndex) {
+        this.version = VERSIONS.incrementAndGet();
+        this.locations = locations;
+        Map<UUID, List<Integer>> byCorporation = new HashMap<>();
+        for (int i = 0; i < locations.size(); i++) {
+            byCorporation.computeIfAbsent(locations.corporation(i).getId(), id -> new ArrayList<>()).add(i);
+        }
+        this.ordinalsByCorporation = new HashMap<>(byCorporation.size() * 2);
+        for (Map.Entry<UUID, List<Integer>> entry : byCorporation.entrySet()) {
+            ordinalsByCorporation.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        this.corporations = corporations;
+        this.blockingIndex = blockingIndex != null ? blockingIndex : BlockingIndex.build(locations);
+        this.trigramIndex = trigramIndex != null ? trigramIndex : TrigramIndex.build(locations);
+        this.phoneticIndex = PhoneticIndex.build(locations);
+        this.spatialIndex = SpatialIndex.build(locations);
+        this.aliasDictionary = buildAliases(locations, corporations);
+        this.exactKeyIndex = ExactKeyIndex.build(locations, aliasDictionary);
+    }
+
+    public static MatchIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a snapshot from fully loaded entities. Each location's corporation must already be
+     * initialized (see {@code LocationRepository.findAllWithCorporation()}).
+     */
+    public static MatchIndex build(Collection<Location> locations, Collection<Corporation> corporations) {
+        Map<UUID, IndexedCorporation> corpsById = new HashMap<>();
+        for (Corporation corp : corporations) {
+            corpsById.put(corp.getId(), IndexedCorporation.from(corp));
+        }
+
+        LocationStore.Builder store = LocationStore.builder(locations.size());
+        for (Location location : locations) {
+            Corporation corp = location.getCorporation();
+            if (corp == null) {
+                continue;
+            }
+            IndexedCorporation indexedCorp = corpsById.computeIfAbsent(corp.getId(), id -> IndexedCorporation.from(corp));
+            store.add(location.getId(), location.getName(), streetAddress(location), location.getCity(),
+                location.getState(), location.getPostalCode(), location.getStoreId(), location.getLat(),
+                location.getLon(), location.getH3Cell(), indexedCorp);
+        }
+
+        return new MatchIndex(store.build(), Collections.unmodifiableMap(corpsById), null, null);
+    }
+
+    /**
+     * Reassembles a snapshot read back by {@link MatchIndexFile}, reusing its stored blocking and trigram
+     * indexes; the remaining indexes are cheap to derive and are rebuilt.
+     */
+    static MatchIndex restore(LocationStore locations, Map<UUID, IndexedCorporation> corporations,
+                              BlockingIndex blockingIndex, TrigramIndex trigramIndex) {
+        return new MatchIndex(locations, Collections.unmodifiableMap(corporations), blockingIndex, trigramIndex);
+    }
+
+    public LocationStore getLocations() {
+        return locations;
+    }
+
+    /**
+     * Materializes the location at {@code ordinal}; matching itself reads {@link #getLocations()} columns.
+     */
+    public IndexedLocation getLocation(int ordinal) {
+        return locations.get(ordinal);
+    }
+
+    public IndexedLocation getLocation(UUID id) {
+        int ordinal = locations.ordinalOf(id);
+        return ordinal < 0 ? null : locations.get(ordinal);
+    }
+
+    /**
+     * Ordinals of the corporation's locations, or an empty array.
+     */
+    public int[] getCorporationLocations(UUID corporationId) {
+        int[] ordinals = ordinalsByCorporation.get(corporationId);
+        return ordinals == null ? new int[0] : ordinals;
+    }
+
+    /**
+     * Monotonically increasing build number; a rebuilt index always has a higher version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public BlockingIndex getBlockingIndex() {
+        return blockingIndex;
+    }
+
+    public TrigramIndex getTrigramIndex() {
+        return trigramIndex;
+    }
+
+    public PhoneticIndex getPhoneticIndex() {
+        return phoneticIndex;
+    }
+
+    public SpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    public ExactKeyIndex getExactKeyIndex() {
+        return exactKeyIndex;
+    }
+
+    public CorporationAliasDictionary getAliasDictionary() {
+        return aliasDictionary;
+    }
+
+    public Collection<IndexedCorporation> getCorporations() {
+        return corporations.values();
+    }
+
+    public IndexedCorporation getCorporation(UUID id) {
+        return corporations.get(id);
+    }
+
+    public int getLocationCount() {
+        return locations.size();
+    }
+
+    public int getCorporationCount() {
+        return corporations.size();
+    }
+
+    private static String streetAddress(Location location) {
+        String street = location.getStreetAddress();
+        if (street == null && location.getAddressLine1() != null) {
+            street = location.getAddressLine2() == null
+                ? location.getAddressLine1()
+                : location.getAddressLine1() + " " + location.getAddressLine2();
+        }
+        return street;
+    }
+
+    private static CorporationAliasDictionary buildAliases(LocationStore locations,
+                                                           Map<UUID, IndexedCorporation> corporations) {
+        CorporationAliasDictionary.Builder aliases = CorporationAliasDictionary.builder();
+        for (IndexedCorporation corp : corporations.values()) {
+            aliases.addCorporation(corp.getId(), corp.getLegalName(), corp.getDoingBusinessAs(), corp.getWebsite());
+        }
+        for (int i = 0; i < locations.size(); i++) {
+            aliases.addStoreName(locations.name(i), locations.corporation(i).getId());
+        }
+        return aliases.build();
+    }
+}
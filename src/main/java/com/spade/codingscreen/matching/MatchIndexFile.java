@@ -0,0 +1,349 @@
+package com.spade.codingscreen.matching;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Versioned binary image of a {@link MatchIndex}, written by {@code --build-index} and memory-mapped
+ * read-only at startup so the server does not rebuild the index from the database through Hibernate.
+ * <p>
+ * Layout, little-endian, every section 8-byte aligned:
+ * <pre>
+ *   header     magic "SPMI", format version, location count, corporation count, load generation
+ *   strings    count, count + 1 byte offsets, UTF-8 bytes; each distinct string is stored once
+ *   corps      per corporation: id, legal name, doing-business-as and website string refs
+ *   locations  per location: id, corporation ordinal, seven string refs, lat, lon
+ *   blocks     postal code, ZIP3 and state blocks: count, then key ref, length and ordinals per block
+ *   trigrams   {@code GRAM_SLOTS + 1} posting offsets, then the flat posting table
+ * </pre>
+ * String refs are indexes into the string table, {@code -1} for null; missing coordinates are NaN.
+ * The load generation is the {@link com.spade.codingscreen.model.LoadGeneration} of the database the index
+ * was built from; {@link #readGeneration} reads it alone so a server can tell whether the file is stale.
+ * <p>
+ * Only the trigram posting table, the bulk of the file, is served straight from the mapping and shared
+ * through the OS page cache by every JVM on the host that maps the same file. Records are decoded once
+ * into a {@link LocationStore} and blocks into heap maps, and the phonetic, spatial, alias and exact-key
+ * indexes are rebuilt from those records on the heap, as after a database read. Mapping the file saves the
+ * database read and the trigram build, not the whole index build.
+ */
+public final class MatchIndexFile {
+
+    /**
+     * Bumped whenever the layout changes; files of another version are rejected rather than misread.
+     */
+    public static final int FORMAT_VERSION = 3;
+
+    private static final int MAGIC = 0x494d5053; // "SPMI" little-endian
+    private static final int NO_STRING = -1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + 2 * Long.BYTES;
+
+    private MatchIndexFile() {
+    }
+
+    /**
+     * Writes {@code index}, built from the database at load {@code generation}, to {@code path}. The file is
+     * written next to the target and moved into place, so a server mapping the previous file keeps a
+     * consistent view.
+     */
+    public static void write(MatchIndex index, UUID generation, Path path) throws IOException {
+        List<IndexedCorporation> corporations = new ArrayList<>(index.getCorporations());
+        Map<UUID, Integer> corporationOrdinals = new HashMap<>(corporations.size() * 2);
+        for (int i = 0; i < corporations.size(); i++) {
+            corporationOrdinals.put(corporations.get(i).getId(), i);
+        }
+        BlockingIndex blocking = index.getBlockingIndex();
+        StringTable strings = new StringTable();
+
+        Output out = new Output();
+        out.putInt(MAGIC);
+        out.putInt(FORMAT_VERSION);
+        out.putInt(index.getLocationCount());
+        out.putInt(corporations.size());
+        out.putUuid(generation);
+
+        Output body = new Output();
+        for (IndexedCorporation corp : corporations) {
+            body.putUuid(corp.getId());
+            body.putInt(strings.ref(corp.getLegalName()));
+            body.putInt(strings.ref(corp.getDoingBusinessAs()));
+            body.putInt(strings.ref(corp.getWebsite()));
+        }
+        LocationStore locations = index.getLocations();
+        for (int i = 0; i < locations.size(); i++) {
+            body.putUuid(locations.id(i));
+            body.putInt(corporationOrdinals.get(locations.corporation(i).getId()));
+            body.putInt(strings.ref(locations.name(i)));
+            body.putInt(strings.ref(locations.streetAddress(i)));
+            body.putInt(strings.ref(locations.city(i)));
+            body.putInt(strings.ref(locations.state(i)));
+            body.putInt(strings.ref(locations.postalCode(i)));
+            body.putInt(strings.ref(locations.storeId(i)));
+            body.putInt(strings.ref(locations.h3Cell(i)));
+            body.putDouble(locations.lat(i));
+            body.putDouble(locations.lon(i));
+        }
+        body.align();
+        putBlocks(body, blocking.getPostalCodeBlocks(), strings);
+        putBlocks(body, blocking.getZip3Blocks(), strings);
+        putBlocks(body, blocking.getStateBlocks(), strings);
+        body.align();
+        body.putInts(index.getTrigramIndex().getOffsets());
+        body.putInts(index.getTrigramIndex().getPostings());
+
+        strings.writeTo(out);
+        out.put(body);
+
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = out.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps {@code path} read-only and reassembles the index it holds.
+     *
+     * @throws IOException if the file cannot be mapped, is not a match index file, or has another format version
+     */
+    public static MatchIndex read(Path path) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        checkHeader(in, path);
+        try {
+            int locationCount = in.getInt();
+            int corporationCount = in.getInt();
+            getUuid(in);
+            String[] strings = readStrings(in);
+
+            IndexedCorporation[] corporations = new IndexedCorporation[corporationCount];
+            Map<UUID, IndexedCorporation> corporationsById = new HashMap<>(corporationCount * 2);
+            for (int i = 0; i < corporationCount; i++) {
+                UUID id = getUuid(in);
+                corporations[i] = new IndexedCorporation(id, string(strings, in), string(strings, in),
+                    string(strings, in));
+                corporationsById.put(id, corporations[i]);
+            }
+            LocationStore.Builder locations = LocationStore.builder(locationCount);
+            for (int i = 0; i < locationCount; i++) {
+                UUID id = getUuid(in);
+                IndexedCorporation corporation = corporations[in.getInt()];
+                String name = string(strings, in);
+                String street = string(strings, in);
+                String city = string(strings, in);
+                String state = string(strings, in);
+                String postalCode = string(strings, in);
+                String storeId = string(strings, in);
+                String h3Cell = string(strings, in);
+                Double lat = coordinate(in.getDouble());
+                Double lon = coordinate(in.getDouble());
+                locations.add(id, name, street, city, state, postalCode, storeId, lat, lon, h3Cell, corporation);
+            }
+            align(in);
+            BlockingIndex blocking = BlockingIndex.of(getBlocks(in, strings), getBlocks(in, strings),
+                getBlocks(in, strings));
+            align(in);
+            IntBuffer offsets = getIntSlice(in, TrigramIndex.GRAM_SLOTS + 1);
+            IntBuffer postings = getIntSlice(in, offsets.get(TrigramIndex.GRAM_SLOTS));
+            TrigramIndex trigrams = TrigramIndex.of(offsets, postings, locationCount);
+
+            return MatchIndex.restore(locations.build(), corporationsById, blocking, trigrams);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt match index file: " + path, e);
+        }
+    }
+
+    /**
+     * Reads only the header of {@code path} and returns the load generation of the database it was built from.
+     *
+     * @throws IOException if the file cannot be read, is not a match index file, or has another format version
+     */
+    public static UUID readGeneration(Path path) throws IOException {
+        byte[] header;
+        try (InputStream stream = Files.newInputStream(path)) {
+            header = stream.readNBytes(HEADER_BYTES);
+        }
+        ByteBuffer in = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+        checkHeader(in, path);
+        in.position(4 * Integer.BYTES);
+        return getUuid(in);
+    }
+
+    private static void checkHeader(ByteBuffer in, Path path) throws IOException {
+        if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not a match index file: " + path);
+        }
+        int version = in.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported match index format version " + version + " in " + path
+                + " (expected " + FORMAT_VERSION + "); rebuild it with --build-index");
+        }
+    }
+
+    private static void putBlocks(Output out, Map<String, int[]> blocks, StringTable strings) {
+        out.putInt(blocks.size());
+        for (Map.Entry<String, int[]> block : blocks.entrySet()) {
+            out.putInt(strings.ref(block.getKey()));
+            out.putInt(block.getValue().length);
+            out.putInts(IntBuffer.wrap(block.getValue()));
+        }
+    }
+
+    private static Map<String, int[]> getBlocks(ByteBuffer in, String[] strings) {
+        int count = in.getInt();
+        Map<String, int[]> blocks = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String key = string(strings, in);
+            int[] ordinals = new int[in.getInt()];
+            in.asIntBuffer().get(ordinals);
+            in.position(in.position() + ordinals.length * Integer.BYTES);
+            blocks.put(key, ordinals);
+        }
+        return blocks;
+    }
+
+    private static String[] readStrings(ByteBuffer in) {
+        int count = in.getInt();
+        int[] offsets = new int[count + 1];
+        in.asIntBuffer().get(offsets);
+        in.position(in.position() + offsets.length * Integer.BYTES);
+        String[] strings = new String[count];
+        byte[] bytes = new byte[offsets[count]];
+        in.get(bytes);
+        for (int i = 0; i < count; i++) {
+            strings[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        align(in);
+        return strings;
+    }
+
+    private static IntBuffer getIntSlice(ByteBuffer in, int length) {
+        IntBuffer slice = in.slice(in.position(), length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        in.position(in.position() + length * Integer.BYTES);
+        return slice;
+    }
+
+    private static String string(String[] strings, ByteBuffer in) {
+        int ref = in.getInt();
+        return ref == NO_STRING ? null : strings[ref];
+    }
+
+    private static UUID getUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static Double coordinate(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static void align(ByteBuffer in) {
+        in.position((in.position() + 7) & ~7);
+    }
+
+    /**
+     * Assigns each distinct string a ref in first-seen order.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> refs = new LinkedHashMap<>();
+
+        int ref(String value) {
+            return value == null ? NO_STRING : refs.computeIfAbsent(value, v -> refs.size());
+        }
+
+        void writeTo(Output out) {
+            byte[][] encoded = new byte[refs.size()][];
+            int i = 0;
+            for (String value : refs.keySet()) {
+                encoded[i++] = value.getBytes(StandardCharsets.UTF_8);
+            }
+            out.putInt(encoded.length);
+            int offset = 0;
+            out.putInt(offset);
+            for (byte[] bytes : encoded) {
+                offset += bytes.length;
+                out.putInt(offset);
+            }
+            for (byte[] bytes : encoded) {
+                out.put(bytes);
+            }
+            out.align();
+        }
+    }
+
+    /**
+     * Growable little-endian write buffer.
+     */
+    private static final class Output {
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        void putInt(int value) {
+            ensure(Integer.BYTES).putInt(value);
+        }
+
+        void putDouble(double value) {
+            ensure(Double.BYTES).putDouble(value);
+        }
+
+        void putUuid(UUID value) {
+            ensure(2 * Long.BYTES).putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+        }
+
+        void putInts(IntBuffer values) {
+            ensure(values.remaining() * Integer.BYTES);
+            while (values.hasRemaining()) {
+                buffer.putInt(values.get());
+            }
+        }
+
+        void put(byte[] bytes) {
+            ensure(bytes.length).put(bytes);
+        }
+
+        void put(Output other) {
+            ByteBuffer bytes = other.flip();
+            ensure(bytes.remaining()).put(bytes);
+        }
+
+        void align() {
+            int padding = -buffer.position() & 7;
+            ensure(padding).put(new byte[padding]);
+        }
+
+        ByteBuffer flip() {
+            return buffer.duplicate().flip();
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN).put(buffer.flip());
+            }
+            return buffer;
+        }
+    }
+}
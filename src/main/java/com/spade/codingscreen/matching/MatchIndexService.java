@@ -0,0 +1,170 @@
+package com.spade.codingscreen.matching;
+
+import com.spade.codingscreen.model.Corporation;
+import com.spade.codingscreen.model.LoadGeneration;
+import com.spade.codingscreen.model.Location;
+import com.spade.codingscreen.repository.CorporationRepository;
+import com.spade.codingscreen.repository.LoadGenerationRepository;
+import com.spade.codingscreen.repository.LocationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the current {@link MatchIndex} snapshot. The snapshot is built from the database at startup
+ * and published through a volatile reference, so readers always see a fully built index.
+ * <p>
+ * When {@code matching.index-file} names an existing {@link MatchIndexFile}, startup reads the records and
+ * trigram postings from that file instead of the database, unless it cannot be read or its load generation
+ * is not the database's (e.g. after a {@code --load-csv} without {@code --build-index}); then it builds from
+ * the database. The other indexes are rebuilt on the heap either way. Reloads always rebuild from the database.
+ * <p>
+ * {@link #reloadAsync()} rebuilds on a dedicated low-priority thread while requests keep using the
+ * previous snapshot; reload requests that arrive before a queued rebuild starts share it.
+ */
+@Service
+public class MatchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchIndexService.class);
+
+    static final String BUILD_TIMER_NAME = "matching.index.build";
+
+    private final LocationRepository locationRepository;
+    private final CorporationRepository corporationRepository;
+    private final LoadGenerationRepository loadGenerationRepository;
+    private final Timer databaseReads;
+    private final Timer indexBuilds;
+    private final String indexFile;
+
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "match-index-reload");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final Object buildLock = new Object();
+
+    private volatile MatchIndex index = MatchIndex.empty();
+    private CompletableFuture<MatchIndex> queuedReload;
+
+    public MatchIndexService(LocationRepository locationRepository, CorporationRepository corporationRepository,
+                             LoadGenerationRepository loadGenerationRepository, MeterRegistry meterRegistry,
+                             @Value("${matching.index-file:}") String indexFile) {
+        this.locationRepository = locationRepository;
+        this.corporationRepository = corporationRepository;
+        this.loadGenerationRepository = loadGenerationRepository;
+        this.databaseReads = buildTimer("db", meterRegistry);
+        this.indexBuilds = buildTimer("index", meterRegistry);
+        this.indexFile = indexFile;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!indexFile.isBlank() && Files.exists(Path.of(indexFile))) {
+            long start = System.nanoTime();
+            try {
+                UUID stored = MatchIndexFile.readGeneration(Path.of(indexFile));
+                UUID current = loadGeneration();
+                if (!Objects.equals(stored, current)) {
+                    log.warn("Match index file {} was built from load generation {} but the database is at {}; "
+                        + "building from the database. Re-run --build-index to update the file",
+                        indexFile, stored, current);
+                    refresh();
+                    return;
+                }
+                MatchIndex mapped = MatchIndexFile.read(Path.of(indexFile));
+                this.index = mapped;
+                log.info("Mapped match index from {}: {} locations, {} corporations in {} ms", indexFile,
+                    mapped.getLocationCount(), mapped.getCorporationCount(), (System.nanoTime() - start) / 1_000_000);
+                return;
+            } catch (IOException e) {
+                log.warn("Could not read match index file {}; building from the database", indexFile, e);
+            }
+        }
+        refresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloadExecutor.shutdownNow();
+    }
+
+    /**
+     * Rebuilds the snapshot from the database on the calling thread and publishes it. The database read and
+     * the in-memory build are recorded on the {@code matching.index.build} timer, apart from the per-request
+     * {@link StageTimers}; requests themselves never touch the database.
+     */
+    public MatchIndex refresh() {
+        synchronized (buildLock) {
+            long start = System.nanoTime();
+            List<Location> locations = locationRepository.findAllWithCorporation();
+            List<Corporation> corporations = corporationRepository.findAll();
+            long read = System.nanoTime();
+            databaseReads.record(read - start, TimeUnit.NANOSECONDS);
+            MatchIndex fresh = MatchIndex.build(locations, corporations);
+            indexBuilds.record(System.nanoTime() - read, TimeUnit.NANOSECONDS);
+            this.index = fresh;
+            log.info("Built match index: {} locations, {} corporations in {} ms",
+                fresh.getLocationCount(), fresh.getCorporationCount(), (System.nanoTime() - start) / 1_000_000);
+            return fresh;
+        }
+    }
+
+    /**
+     * The database's current {@link LoadGeneration}, or null if nothing has recorded one yet.
+     */
+    public UUID loadGeneration() {
+        return loadGenerationRepository.findById(LoadGeneration.ID).map(LoadGeneration::getGeneration).orElse(null);
+    }
+
+    /**
+     * Schedules a background rebuild and returns a future completed with the published snapshot.
+     * If a rebuild is already queued but not yet started, its future is returned instead.
+     */
+    public synchronized CompletableFuture<MatchIndex> reloadAsync() {
+        if (queuedReload != null) {
+            return queuedReload;
+        }
+        CompletableFuture<MatchIndex> reload = new CompletableFuture<>();
+        queuedReload = reload;
+        reloadExecutor.execute(() -> {
+            synchronized (this) {
+                queuedReload = null;
+            }
+            try {
+                reload.complete(refresh());
+            } catch (RuntimeException e) {
+                log.error("Match index reload failed; keeping the previous snapshot", e);
+                reload.completeExceptionally(e);
+            }
+        });
+        return reload;
+    }
+
+    public MatchIndex getIndex() {
+        return index;
+    }
+
+    private static Timer buildTimer(String phase, MeterRegistry meterRegistry) {
+        return Timer.builder(BUILD_TIMER_NAME)
+            .description("Time to rebuild the match index from the database, by phase")
+            .tag("phase", phase)
+            .register(meterRegistry);
+    }
+}
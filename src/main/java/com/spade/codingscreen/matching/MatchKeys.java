@@ -0,0 +1,137 @@
+package com.spade.codingscreen.matching;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Canonical keys used by the exact-lookup stages of the match cascade.
+ */
+final class MatchKeys {
+
+    private static final Set<String> LEGAL_SUFFIXES = Set.of(
+        "inc", "incorporated", "llc", "ltd", "co", "corp", "corporation", "company", "the");
+
+    /** Second-level labels under two-letter country TLDs that are part of the public suffix (co.uk, com.au). */
+    private static final Set<String> SECOND_LEVEL_SUFFIXES = Set.of("co", "com", "org", "net", "ac", "gov", "edu");
+
+    private MatchKeys() {
+    }
+
+    /**
+     * Reduces a merchant or location name to its brand tokens: lower-cased, apostrophes dropped, other
+     * punctuation treated as separators, and numeric tokens (store numbers) and legal suffixes removed.
+     * "WALGREENS #19978", "Walgreens" and "Walgreens Co." all map to "walgreens".
+     * Returns null when nothing is left.
+     */
+    static String nameKey(String name) {
+        if (name == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(name.length());
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= name.length(); i++) {
+            char c = i < name.length() ? name.charAt(i) : ' ';
+            if (c == '\'' || c == '\u2019') {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (token.length() > 0) {
+                appendToken(key, token.toString());
+                token.setLength(0);
+            }
+        }
+        return key.length() == 0 ? null : key.toString();
+    }
+
+    /**
+     * Composite (name, house number, postal code) key, or null when any part is missing.
+     */
+    static String exactKey(String nameKey, String houseNumber, String postalKey) {
+        if (nameKey == null || houseNumber == null || postalKey == null) {
+            return null;
+        }
+        return nameKey + '|' + houseNumber + '|' + postalKey;
+    }
+
+    /**
+     * Store numbers compare without leading zeros, so "#05002" finds store id "5002".
+     */
+    static String storeKey(String storeNumber) {
+        if (storeNumber == null) {
+            return null;
+        }
+        String trimmed = storeNumber.trim();
+        int start = 0;
+        while (start < trimmed.length() - 1 && trimmed.charAt(start) == '0') {
+            start++;
+        }
+        return trimmed.isEmpty() ? null : trimmed.substring(start).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Brand stem of a website's registrable domain: scheme, "www.", port and path removed, the public suffix
+     * dropped, and hyphens removed. "http://www.el-zocalo-supermarket.com/" gives "elzocalosupermarket" and
+     * "shop.example.co.uk" gives "example". Returns null for unparseable values.
+     */
+    static String domainStem(String website) {
+        if (website == null) {
+            return null;
+        }
+        String host = website.trim().toLowerCase(Locale.ROOT);
+        int scheme = host.indexOf("://");
+        if (scheme >= 0) {
+            host = host.substring(scheme + 3);
+        }
+        int end = 0;
+        while (end < host.length() && host.charAt(end) != '/' && host.charAt(end) != ':'
+            && host.charAt(end) != '?' && host.charAt(end) != '#') {
+            end++;
+        }
+        String[] labels = host.substring(0, end).split("\\.");
+        if (labels.length < 2) {
+            return null;
+        }
+        int stem = labels.length - 2;
+        if (labels.length >= 3 && labels[labels.length - 1].length() == 2
+            && SECOND_LEVEL_SUFFIXES.contains(labels[labels.length - 2])) {
+            stem--;
+        }
+        StringBuilder key = new StringBuilder(labels[stem].length());
+        for (int i = 0; i < labels[stem].length(); i++) {
+            char c = labels[stem].charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(c);
+            }
+        }
+        return key.length() == 0 ? null : key.toString();
+    }
+
+    /**
+     * A name key with its token separators removed, for comparison against {@link #domainStem domain stems}.
+     */
+    static String compact(String nameKey) {
+        return nameKey == null ? null : nameKey.replace(" ", "");
+    }
+
+    private static void appendToken(StringBuilder key, String token) {
+        if (isDigits(token) || LEGAL_SUFFIXES.contains(token)) {
+            return;
+        }
+        if (key.length() > 0) {
+            key.append(' ');
+        }
+        key.append(token);
+    }
+
+    private static boolean isDigits(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
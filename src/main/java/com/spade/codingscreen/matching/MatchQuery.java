@@ -0,0 +1,93 @@
+package com.spade.codingscreen.matching;
+
+import com.spade.codingscreen.dto.MerchantRequest;
+
+/**
+ * A {@link MerchantRequest} prepared once for scoring against many candidates.
+ */
+final class MatchQuery {
+
+    private final MerchantRequest request;
+    private final FuzzyText name;
+    private final NormalizedAddress address;
+    private final FuzzyText city;
+    private final String storeNumber;
+    private final String nameKey;
+    private final String postalKey;
+    private final String compactName;
+    private LocationStore cityFormStore;
+    private int cityForm;
+
+    MatchQuery(MerchantRequest request) {
+        this.request = request;
+        this.name = FuzzyText.of(request.getMerchantName());
+        this.address = AddressNormalizer.normalize(request.getAddress());
+        this.city = FuzzyText.of(request.getCity());
+        this.storeNumber = extractStoreNumber(request.getMerchantName());
+        this.nameKey = MatchKeys.nameKey(request.getMerchantName());
+        this.postalKey = BlockingIndex.postalKey(request.getPostalCode());
+        this.compactName = MatchKeys.compact(nameKey);
+    }
+
+    MerchantRequest getRequest() {
+        return request;
+    }
+
+    FuzzyText getName() {
+        return name;
+    }
+
+    NormalizedAddress getAddress() {
+        return address;
+    }
+
+    FuzzyText getCity() {
+        return city;
+    }
+
+    String getStoreNumber() {
+        return storeNumber;
+    }
+
+    String getNameKey() {
+        return nameKey;
+    }
+
+    String getPostalKey() {
+        return postalKey;
+    }
+
+    String getCompactName() {
+        return compactName;
+    }
+
+    /**
+     * The request city's form id in {@code locations}, looked up once per store.
+     */
+    int getCityForm(LocationStore locations) {
+        if (cityFormStore != locations) {
+            cityForm = locations.cityForm(city);
+            cityFormStore = locations;
+        }
+        return cityForm;
+    }
+
+    /**
+     * Pulls a store number out of names like "WALGREENS #19978".
+     */
+    static String extractStoreNumber(String merchantName) {
+        if (merchantName == null) {
+            return null;
+        }
+        int hash = merchantName.indexOf('#');
+        if (hash < 0) {
+            return null;
+        }
+        int start = hash + 1;
+        int end = start;
+        while (end < merchantName.length() && Character.isDigit(merchantName.charAt(end))) {
+            end++;
+        }
+        return end > start ? merchantName.substring(start, end) : null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.spade.codingscreen.matching;
+
+import jdk.jfr.Recording;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Runs at most one on-demand JFR recording in the server, so a client such as {@code --check-match-rate --jfr}
+ * can capture match decisions for the length of its run. The recording enables only {@link MatchEvent} and
+ * {@link SlowMatchEvent}; JDK events such as environment variables and system properties stay out of it.
+ */
+@Component
+public class MatchRecorder {
+
+    static final String RECORDING_NAME = "match-events";
+
+    private Recording recording;
+
+    /**
+     * Starts a recording, with slow-match events gated at {@code slowThreshold} when given.
+     *
+     * @return false if a recording is already running
+     */
+    public synchronized boolean start(Duration slowThreshold) {
+        if (recording != null) {
+            return false;
+        }
+        Recording fresh = new Recording();
+        fresh.setName(RECORDING_NAME);
+        fresh.enable(MatchEvent.NAME);
+        if (slowThreshold != null) {
+            fresh.enable(SlowMatchEvent.NAME).withThreshold(slowThreshold);
+        } else {
+            fresh.enable(SlowMatchEvent.NAME);
+        }
+        fresh.start();
+        recording = fresh;
+        return true;
+    }
+
+    /**
+     * Stops the running recording and writes it to a temporary file the caller owns.
+     *
+     * @return the file, or null if no recording was running
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Recording stopped = recording;
+        recording = null;
+        try {
+            stopped.stop();
+            Path file = Files.createTempFile(RECORDING_NAME, ".jfr");
+            stopped.dump(file);
+            return file;
+        } finally {
+            stopped.close();
+        }
+    }
+}
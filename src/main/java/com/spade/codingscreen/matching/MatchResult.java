@@ -0,0 +1,36 @@
+package com.spade.codingscreen.matching;
+
+/**
+ * Outcome of matching a single merchant request against a {@link MatchIndex}.
+ */
+public final class MatchResult {
+
+    private final IndexedLocation location;
+    private final double score;
+    private final MatchTier tier;
+
+    public MatchResult(IndexedLocation location, double score, MatchTier tier) {
+        this.location = location;
+        this.score = score;
+        this.tier = tier;
+    }
+
+    public IndexedLocation getLocation() {
+        return location;
+    }
+
+    public IndexedCorporation getCorporation() {
+        return location.getCorporation();
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Cascade stage that produced this result.
+     */
+    public MatchTier getTier() {
+        return tier;
+    }
+}
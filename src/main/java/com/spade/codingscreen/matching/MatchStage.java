@@ -0,0 +1,25 @@
+package com.spade.codingscreen.matching;
+
+/**
+ * Stage of serving a match request, timed by {@link StageTimers}.
+ */
+public enum MatchStage {
+    DESERIALIZE("deserialize"),
+    NORMALIZE("normalize"),
+    CANDIDATES("candidates"),
+    SCORING("scoring"),
+    SERIALIZE("serialize");
+
+    private final String tagValue;
+
+    MatchStage(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    /**
+     * Value used for the {@code stage} metrics tag.
+     */
+    public String getTagValue() {
+        return tagValue;
+    }
+}
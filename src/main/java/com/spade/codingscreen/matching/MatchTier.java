@@ -0,0 +1,24 @@
+package com.spade.codingscreen.matching;
+
+/**
+ * Stage of the match cascade that resolved a request, in the order the stages run.
+ */
+public enum MatchTier {
+    EXACT_KEY("exact_key"),
+    STORE_ID("store_id"),
+    FUZZY("fuzzy"),
+    NONE("none");
+
+    private final String tagValue;
+
+    MatchTier(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    /**
+     * Value used for the {@code tier} metrics tag.
+     */
+    public String getTagValue() {
+        return tagValue;
+    }
+}
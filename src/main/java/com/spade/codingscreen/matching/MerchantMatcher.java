@@ -0,0 +1,332 @@
+package com.spade.codingscreen.matching;
+
+import com.spade.codingscreen.dto.MerchantRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Matches merchant requests against the current {@link MatchIndex} snapshot.
+ * Requests run through a cascade (see {@link MatchTier}): an exact (name, house number, postal code) hash
+ * lookup, then store id within a corporation the name is an alias of, and only then fuzzy scoring.
+ * For the fuzzy stage, candidates are drawn tier by tier (see {@link BlockingTier}): the narrowest non-empty block is scored
+ * first and the matcher only widens to the next tier when no candidate in it clears {@link #MIN_SCORE}.
+ * After the exact postal code, a merchant name that matches a corporation's website domain stem narrows
+ * the candidates to that corporation's stores (at most {@link #MAX_DOMAIN_CANDIDATES}); next the
+ * {@link SpatialIndex} supplies stores within {@link #NEARBY_RINGS} grid rings of the postal centroid, which
+ * keeps large chains from being scored state-wide.
+ * When every geographic block misses, the top {@link #PHONETIC_CANDIDATES} locations sharing Double Metaphone
+ * codes with the name are scored, which catches misspellings by hash lookup; only then are the top
+ * {@link #TRIGRAM_CANDIDATES} locations by shared name trigrams scored instead of the whole catalogue.
+ * Scoring is a weighted blend of name, street address, postal code and city similarity.
+ * Outcomes are memoized per index version in the {@link MatchCache}; uncached requests record their
+ * normalize, candidate and scoring time in the {@link StageTimers} and, while a JFR recording enables them,
+ * emit a {@link MatchEvent} and a threshold-gated {@link SlowMatchEvent}.
+ */
+@Component
+public class MerchantMatcher {
+
+    static final double MIN_SCORE = 60.0;
+    static final int TRIGRAM_CANDIDATES = 32;
+    static final int PHONETIC_CANDIDATES = 32;
+    static final int NEARBY_RINGS = 2;
+    static final int PARALLEL_THRESHOLD = 8;
+    static final int MIN_DOMAIN_STEM = 5;
+    static final int MAX_DOMAIN_CANDIDATES = 256;
+
+    private static final BlockingTier[] BLOCKING_TIERS = BlockingTier.values();
+    private static final int[] NO_CANDIDATES = new int[0];
+
+    private static final double NAME_WEIGHT = 0.40;
+    private static final double ADDRESS_WEIGHT = 0.35;
+    private static final double POSTAL_WEIGHT = 0.15;
+    private static final double CITY_WEIGHT = 0.10;
+    private static final double STORE_ID_BONUS = 20.0;
+
+    private final MatchIndexService indexService;
+    private final MatchCache cache;
+    private final StageTimers stageTimers;
+    private final Map<BlockingTier, DistributionSummary> candidateSizes = new EnumMap<>(BlockingTier.class);
+    private final Map<MatchTier, Timer> tierTimers = new EnumMap<>(MatchTier.class);
+
+    public MerchantMatcher(MatchIndexService indexService, MatchCache cache, StageTimers stageTimers,
+                           MeterRegistry meterRegistry) {
+        this.indexService = indexService;
+        this.cache = cache;
+        this.stageTimers = stageTimers;
+        for (BlockingTier tier : BlockingTier.values()) {
+            candidateSizes.put(tier, DistributionSummary.builder("matching.blocking.candidates")
+                .description("Number of candidate locations scored per blocking tier")
+                .tag("tier", tier.getTagValue())
+                .register(meterRegistry));
+        }
+        for (MatchTier tier : MatchTier.values()) {
+            tierTimers.put(tier, Timer.builder("matching.cascade")
+                .description("Time to resolve an uncached request, by the cascade stage that resolved it")
+                .tag("tier", tier.getTagValue())
+                .register(meterRegistry));
+        }
+    }
+
+    public Optional<MatchResult> match(MerchantRequest request) {
+        return match(indexService.getIndex(), request);
+    }
+
+    /**
+     * Matches a batch of requests against a single index snapshot. Identical requests are matched once,
+     * distinct requests are scored in parallel on the common fork-join pool, and the results keep the
+     * order of {@code requests}.
+     */
+    public List<Optional<MatchResult>> matchAll(List<MerchantRequest> requests) {
+        MatchIndex index = indexService.getIndex();
+
+        Map<MerchantRequest, Integer> slots = new HashMap<>(requests.size() * 2);
+        List<MerchantRequest> distinct = new ArrayList<>();
+        int[] slotOf = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            MerchantRequest request = requests.get(i);
+            Integer slot = slots.get(request);
+            if (slot == null) {
+                slot = distinct.size();
+                slots.put(request, slot);
+                distinct.add(request);
+            }
+            slotOf[i] = slot;
+        }
+
+        Stream<MerchantRequest> stream = distinct.size() >= PARALLEL_THRESHOLD
+            ? distinct.parallelStream()
+            : distinct.stream();
+        List<Optional<MatchResult>> matched = stream.map(request -> match(index, request)).toList();
+
+        List<Optional<MatchResult>> results = new ArrayList<>(requests.size());
+        for (int slot : slotOf) {
+            results.add(matched.get(slot));
+        }
+        return results;
+    }
+
+    private Optional<MatchResult> match(MatchIndex index, MerchantRequest request) {
+        return cache.get(index, request, uncached -> score(index, uncached));
+    }
+
+    /**
+     * Matches {@code request} like {@link #match(MerchantRequest)} but bypasses the cache and also returns the
+     * {@code k} best candidates scored along the way, each with its per-feature breakdown.
+     */
+    public MatchExplanation explain(MerchantRequest request, int k) {
+        MatchIndex index = indexService.getIndex();
+        MatchQuery query = new MatchQuery(request);
+        CandidateHeap heap = new CandidateHeap(k);
+        MatchResult result = resolve(index, query, heap, null);
+
+        int[] ordinals = heap.drainBestFirst();
+        List<MatchExplanation.Candidate> candidates = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            candidates.add(new MatchExplanation.Candidate(index.getLocation(ordinal),
+                features(query, index.getLocations(), ordinal)));
+        }
+        return new MatchExplanation(Optional.ofNullable(result), candidates);
+    }
+
+    private Optional<MatchResult> score(MatchIndex index, MerchantRequest request) {
+        long start = System.nanoTime();
+        MatchEvent event = MatchEvent.startIfEnabled();
+        MatchQuery query = new MatchQuery(request);
+        stageTimers.record(MatchStage.NORMALIZE, System.nanoTime() - start);
+        MatchResult result = resolve(index, query, null, event);
+        if (event != null) {
+            event.finish(query, result);
+        }
+        tierTimers.get(result == null ? MatchTier.NONE : result.getTier())
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Runs the cascade: exact composite key, then store id within the named corporation, then the
+     * blocking tiers with fuzzy scoring. Each stage only runs when the previous ones resolved nothing.
+     * Every scored candidate is offered to {@code heap} when one is given, and every scored block is
+     * counted on {@code event} when one is given. Time spent looking up candidates and scoring them is
+     * summed across stages and recorded once each.
+     */
+    private MatchResult resolve(MatchIndex index, MatchQuery query, CandidateHeap heap, MatchEvent event) {
+        ExactKeyIndex exactKeys = index.getExactKeyIndex();
+        long candidateNanos = 0;
+        long scoringNanos = 0;
+
+        long clock = System.nanoTime();
+        int[] ordinals = exactKeys.exact(query.getNameKey(), query.getAddress().getHouseNumber(), query.getPostalKey());
+        long scored = System.nanoTime();
+        candidateNanos += scored - clock;
+        MatchResult result = best(index, query, MatchTier.EXACT_KEY, ordinals, heap, event);
+        clock = System.nanoTime();
+        scoringNanos += clock - scored;
+
+        if (result == null) {
+            ordinals = exactKeys.storeId(query.getStoreNumber(), query.getNameKey());
+            scored = System.nanoTime();
+            candidateNanos += scored - clock;
+            result = best(index, query, MatchTier.STORE_ID, ordinals, heap, event);
+            clock = System.nanoTime();
+            scoringNanos += clock - scored;
+        }
+        for (int t = 0; result == null && t < BLOCKING_TIERS.length; t++) {
+            BlockingTier tier = BLOCKING_TIERS[t];
+            int[] block = candidates(index, tier, query);
+            scored = System.nanoTime();
+            candidateNanos += scored - clock;
+            if (block.length > 0) {
+                candidateSizes.get(tier).record(block.length);
+                result = best(index, query, MatchTier.FUZZY, block, heap, event);
+            }
+            clock = System.nanoTime();
+            scoringNanos += clock - scored;
+        }
+
+        stageTimers.record(MatchStage.CANDIDATES, candidateNanos);
+        stageTimers.record(MatchStage.SCORING, scoringNanos);
+        return result;
+    }
+
+    /**
+     * Highest-scoring candidate if it clears {@link #MIN_SCORE}, otherwise null.
+     */
+    private MatchResult best(MatchIndex index, MatchQuery query, MatchTier tier, int[] ordinals, CandidateHeap heap,
+                             MatchEvent event) {
+        LocationStore locations = index.getLocations();
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int ordinal : ordinals) {
+            double score = score(query, locations, ordinal);
+            if (heap != null) {
+                heap.offer(ordinal, score);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = ordinal;
+            }
+        }
+        if (event != null && ordinals.length > 0) {
+            event.scored(ordinals.length, bestScore);
+        }
+        return best >= 0 && bestScore >= MIN_SCORE ? new MatchResult(locations.get(best), bestScore, tier) : null;
+    }
+
+    private static int[] candidates(MatchIndex index, BlockingTier tier, MatchQuery query) {
+        MerchantRequest request = query.getRequest();
+        switch (tier) {
+            case CORPORATION_DOMAIN:
+                return domainCandidates(index, query);
+            case NEARBY:
+                return index.getSpatialIndex().nearby(request.getPostalCode(), NEARBY_RINGS);
+            case PHONETIC_NAME:
+                return index.getPhoneticIndex().topK(request.getMerchantName(), PHONETIC_CANDIDATES);
+            case NAME_TRIGRAM:
+                return index.getTrigramIndex().topK(request.getMerchantName(), TRIGRAM_CANDIDATES);
+            default:
+                return index.getBlockingIndex().block(tier, request.getPostalCode(), request.getRegion());
+        }
+    }
+
+    /**
+     * Stores of the single corporation whose website domain stem matches the merchant name, when that
+     * corporation is small enough for the shortcut to be cheaper than the geographic tiers.
+     */
+    private static int[] domainCandidates(MatchIndex index, MatchQuery query) {
+        UUID corporation = index.getAliasDictionary()
+            .resolveStem(CorporationAliasDictionary.Kind.DOMAIN_STEM, query.getCompactName(), MIN_DOMAIN_STEM);
+        if (corporation == null) {
+            return NO_CANDIDATES;
+        }
+        int[] stores = index.getCorporationLocations(corporation);
+        return stores.length <= MAX_DOMAIN_CANDIDATES ? stores : NO_CANDIDATES;
+    }
+
+    double score(MatchQuery query, LocationStore locations, int ordinal) {
+        return combine(nameScore(query, locations, ordinal), addressScore(query, locations, ordinal),
+            postalScore(query.getRequest().getPostalCode(), locations.postalCode(ordinal)),
+            cityScore(query, locations, ordinal), locations.storeIdEquals(ordinal, query.getStoreNumber()));
+    }
+
+    FeatureScores features(MatchQuery query, LocationStore locations, int ordinal) {
+        int name = nameScore(query, locations, ordinal);
+        int address = addressScore(query, locations, ordinal);
+        int postal = postalScore(query.getRequest().getPostalCode(), locations.postalCode(ordinal));
+        int city = cityScore(query, locations, ordinal);
+        boolean storeId = locations.storeIdEquals(ordinal, query.getStoreNumber());
+        return new FeatureScores(name, address, postal, city, storeId, combine(name, address, postal, city, storeId));
+    }
+
+    private static double combine(int name, int address, int postal, int city, boolean storeIdMatch) {
+        double score = NAME_WEIGHT * name
+            + ADDRESS_WEIGHT * address
+            + POSTAL_WEIGHT * postal
+            + CITY_WEIGHT * city;
+        return storeIdMatch ? score + STORE_ID_BONUS : score;
+    }
+
+    /**
+     * Best token-set similarity against the location name, doing-business-as and legal name.
+     */
+    private static int nameScore(MatchQuery query, LocationStore locations, int ordinal) {
+        IndexedCorporation corp = locations.corporation(ordinal);
+
+        // Each name variant only has to beat the best so far, which lets the scorer exit early.
+        int nameScore = FuzzyScorer.tokenSetRatio(query.getName(), locations.nameText(ordinal), 0);
+        nameScore = Math.max(nameScore,
+            FuzzyScorer.tokenSetRatio(query.getName(), corp.getDoingBusinessAsText(), nameScore + 1));
+        return Math.max(nameScore,
+            FuzzyScorer.tokenSetRatio(query.getName(), corp.getLegalNameText(), nameScore + 1));
+    }
+
+    /**
+     * Street similarity on the normalized street names, halved when both sides carry a house number
+     * and the numbers disagree. Units are ignored: requests often omit or garble them.
+     */
+    private static int addressScore(MatchQuery query, LocationStore locations, int ordinal) {
+        NormalizedAddress requestAddress = query.getAddress();
+        int streetScore = FuzzyScorer.tokenSetRatio(requestAddress.getStreet(), locations.streetText(ordinal), 0);
+        if (locations.houseNumberConflicts(ordinal, requestAddress.getHouseNumber())) {
+            return streetScore / 2;
+        }
+        return streetScore;
+    }
+
+    /**
+     * City similarity; a request city with the location's city form id scores 100 without a fuzzy ratio.
+     */
+    private static int cityScore(MatchQuery query, LocationStore locations, int ordinal) {
+        int form = locations.cityForm(ordinal);
+        if (form != StringDictionary.NONE && form == query.getCityForm(locations)) {
+            return 100;
+        }
+        return FuzzyScorer.processedRatio(query.getCity(), locations.cityText(ordinal), 0);
+    }
+
+    private static int postalScore(String requestPostal, String locationPostal) {
+        if (requestPostal == null || locationPostal == null) {
+            return 0;
+        }
+        String a = requestPostal.trim();
+        String b = locationPostal.trim();
+        if (a.equals(b) || a.regionMatches(0, b, 0, 5)) {
+            return 100;
+        }
+        if (a.length() >= 3 && a.regionMatches(0, b, 0, 3)) {
+            return 50;
+        }
+        return 0;
+    }
+}
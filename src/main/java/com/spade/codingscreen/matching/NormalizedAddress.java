@@ -0,0 +1,46 @@
+package com.spade.codingscreen.matching;
+
+/**
+ * Street address split into house number, standardized street and unit by {@link AddressNormalizer}.
+ * The street is kept as a {@link FuzzyText} so it can be scored without further processing.
+ */
+public final class NormalizedAddress {
+
+    public static final NormalizedAddress EMPTY = new NormalizedAddress(null, FuzzyText.EMPTY, null);
+
+    private final String houseNumber;
+    private final FuzzyText street;
+    private final String unit;
+
+    NormalizedAddress(String houseNumber, FuzzyText street, String unit) {
+        this.houseNumber = houseNumber;
+        this.street = street;
+        this.unit = unit;
+    }
+
+    /**
+     * Upper-cased house number, e.g. "352B" or "N83W15701", or null when the address has none.
+     */
+    public String getHouseNumber() {
+        return houseNumber;
+    }
+
+    /**
+     * Street name with USPS suffix and directional abbreviations, e.g. "UNIVERSITY BLVD".
+     */
+    public FuzzyText getStreet() {
+        return street;
+    }
+
+    /**
+     * Unit identifier without its designator, e.g. "210" for "Ste 210", or null.
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public String toString() {
+        return (houseNumber != null ? houseNumber + " " : "") + street + (unit != null ? " #" + unit : "");
+    }
+}
@@ -0,0 +1,173 @@
+package com.spade.codingscreen.matching;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Double Metaphone keys of location and doing-business-as name tokens, mapped to location ordinals.
+ * <p>
+ * Names are reduced to {@link MatchKeys#nameKey brand tokens} first; each token of at least
+ * {@link #MIN_TOKEN_LENGTH} letters contributes its primary and alternate codes, and multi-token names also
+ * contribute the code of the compacted name, so "Tru Boba" and "Truboba" meet. Misspellings that sound
+ * alike ("Wallgreens", "Walgreens") share a code and are found by hash lookup rather than a wider trigram
+ * search. Locations are ranked by the number of distinct request codes they share.
+ */
+public final class PhoneticIndex {
+
+    static final int MIN_TOKEN_LENGTH = 3;
+    static final int MAX_CODE_LENGTH = 6;
+
+    private static final int[] EMPTY = new int[0];
+    private static final DoubleMetaphone ENCODER = new DoubleMetaphone();
+    // Shared by every snapshot and grown to the largest catalogue seen, as in TrigramIndex
+    private static final ScratchPool<Scratch> SCRATCH = new ScratchPool<>(Scratch::new);
+
+    static {
+        ENCODER.setMaxCodeLen(MAX_CODE_LENGTH);
+    }
+
+    private final Map<String, int[]> postings;
+    private final int documentCount;
+
+    private PhoneticIndex(Map<String, int[]> postings, int documentCount) {
+        this.postings = postings;
+        this.documentCount = documentCount;
+    }
+
+    public static PhoneticIndex build(LocationStore locations) {
+        Map<String, List<Integer>> lists = new HashMap<>();
+        for (int i = 0; i < locations.size(); i++) {
+            TreeSet<String> codes = new TreeSet<>();
+            addCodes(codes, locations.name(i));
+            addCodes(codes, locations.corporation(i).getDoingBusinessAs());
+            for (String code : codes) {
+                lists.computeIfAbsent(code, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return new PhoneticIndex(postings, locations.size());
+    }
+
+    /**
+     * Returns up to {@code k} location ordinals sharing the most phonetic codes with {@code name},
+     * most shared codes first and lower ordinals first among ties.
+     */
+    public int[] topK(String name, int k) {
+        TreeSet<String> codes = codes(name);
+        if (codes.isEmpty() || k <= 0) {
+            return EMPTY;
+        }
+
+        Scratch s = SCRATCH.acquire();
+        try {
+            return topK(codes, k, s);
+        } finally {
+            SCRATCH.release(s);
+        }
+    }
+
+    private int[] topK(TreeSet<String> codes, int k, Scratch s) {
+        s.ensure(documentCount);
+        int[] counts = s.counts;
+        int[] touched = s.touched;
+        int touchedCount = 0;
+        for (String code : codes) {
+            int[] ordinals = postings.get(code);
+            if (ordinals == null) {
+                continue;
+            }
+            for (int ordinal : ordinals) {
+                if (counts[ordinal]++ == 0) {
+                    touched[touchedCount++] = ordinal;
+                }
+            }
+        }
+
+        // Rank by shared-code count, then ordinal, packed into one sortable long per candidate.
+        long[] ranked = new long[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            int ordinal = touched[i];
+            ranked[i] = ((long) counts[ordinal] << 32) | (Integer.MAX_VALUE - ordinal);
+            counts[ordinal] = 0;
+        }
+        Arrays.sort(ranked);
+        int[] result = new int[Math.min(k, touchedCount)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Integer.MAX_VALUE - (int) ranked[touchedCount - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * Distinct phonetic codes of {@code name}, e.g. [ALKRNS] for "Wallgreens #12".
+     */
+    static TreeSet<String> codes(String name) {
+        TreeSet<String> codes = new TreeSet<>();
+        addCodes(codes, name);
+        return codes;
+    }
+
+    private static void addCodes(TreeSet<String> codes, String name) {
+        String key = MatchKeys.nameKey(name);
+        if (key == null) {
+            return;
+        }
+        int tokens = 0;
+        int start = 0;
+        for (int i = 0; i <= key.length(); i++) {
+            if (i == key.length() || key.charAt(i) == ' ') {
+                addToken(codes, key.substring(start, i));
+                start = i + 1;
+                tokens++;
+            }
+        }
+        if (tokens > 1) {
+            addToken(codes, MatchKeys.compact(key));
+        }
+    }
+
+    private static void addToken(TreeSet<String> codes, String token) {
+        int letters = 0;
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isLetter(token.charAt(i))) {
+                letters++;
+            }
+        }
+        if (letters < MIN_TOKEN_LENGTH) {
+            return;
+        }
+        String primary = ENCODER.doubleMetaphone(token, false);
+        String alternate = ENCODER.doubleMetaphone(token, true);
+        if (primary != null && !primary.isEmpty()) {
+            codes.add(primary);
+        }
+        if (alternate != null && !alternate.isEmpty()) {
+            codes.add(alternate);
+        }
+    }
+
+    /**
+     * Per-location counts, all zero between queries, and the locations a query touched.
+     */
+    private static final class Scratch {
+        int[] counts = EMPTY;
+        int[] touched = EMPTY;
+
+        void ensure(int documentCount) {
+            if (counts.length < documentCount) {
+                counts = new int[documentCount];
+                touched = new int[documentCount];
+            }
+        }
+    }
+}
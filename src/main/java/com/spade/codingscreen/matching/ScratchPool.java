@@ -0,0 +1,57 @@
+package com.spade.codingscreen.matching;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A small lock-free pool of reusable scratch buffers shared by every thread.
+ * <p>
+ * Thread-locals only pay off when threads are long-lived; with virtual threads every request runs on a
+ * fresh thread, so a per-thread buffer would be allocated and grown on every request and then dropped.
+ * The pool instead keeps at most {@code 2 * availableProcessors} buffers, which covers every thread that
+ * can be running at once. {@link #acquire()} takes a pooled buffer or allocates one when all are in use,
+ * and {@link #release(Object)} hands it back, dropping it when the pool is already full.
+ */
+final class ScratchPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<T> factory;
+
+    ScratchPool(Supplier<T> factory) {
+        this(factory, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    ScratchPool(Supplier<T> factory, int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.factory = factory;
+    }
+
+    T acquire() {
+        int start = start();
+        for (int i = 0; i < slots.length(); i++) {
+            int slot = (start + i) % slots.length();
+            T scratch = slots.get(slot);
+            if (scratch != null && slots.compareAndSet(slot, scratch, null)) {
+                return scratch;
+            }
+        }
+        return factory.get();
+    }
+
+    void release(T scratch) {
+        int start = start();
+        for (int i = 0; i < slots.length(); i++) {
+            int slot = (start + i) % slots.length();
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, scratch)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Spreads concurrent callers over the slots so they rarely race for the same one.
+     */
+    private int start() {
+        return (int) (Thread.currentThread().getId() % slots.length());
+    }
+}
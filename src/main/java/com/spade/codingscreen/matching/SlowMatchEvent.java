@@ -0,0 +1,41 @@
+package com.spade.codingscreen.matching;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for an uncached match request that took at least the event's threshold, 50 ms unless a
+ * recording sets {@code com.spade.codingscreen.SlowMatch#threshold}. Carries the same fields as
+ * {@link MatchEvent}, so slow merchants can be found in a recording that leaves the per-request event off.
+ */
+@Name(SlowMatchEvent.NAME)
+@Label("Slow Match")
+@Category({"Spade", "Matching"})
+@Description("An uncached merchant request whose matching took longer than the threshold")
+@Threshold("50 ms")
+@StackTrace(false)
+public final class SlowMatchEvent extends Event {
+
+    public static final String NAME = "com.spade.codingscreen.SlowMatch";
+
+    @Label("Merchant Name")
+    String merchantName;
+
+    @Label("Postal Code")
+    String postalCode;
+
+    @Label("Candidates")
+    @Description("Candidate locations scored across all cascade stages")
+    int candidates;
+
+    @Label("Tier")
+    String tier;
+
+    @Label("Best Score")
+    double bestScore;
+}
@@ -0,0 +1,134 @@
+package com.spade.codingscreen.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buckets located catalogue entries into a fixed latitude/longitude grid and resolves a request's
+ * postal code to a centroid computed from the catalogue itself, so nearby stores can be retrieved by
+ * scanning the centroid's cell and its surrounding rings.
+ * <p>
+ * A plain grid is used instead of H3 so the index needs no native library; the stored
+ * {@code h3_cell} values are not read.
+ */
+public final class SpatialIndex {
+
+    /** Grid cell edge in degrees (about 5.5 km of latitude). */
+    static final double CELL_DEGREES = 0.05;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<Long, int[]> cells;
+    private final Map<String, double[]> postalCentroids;
+    private final Map<String, double[]> zip3Centroids;
+
+    private SpatialIndex(Map<Long, int[]> cells, Map<String, double[]> postalCentroids,
+                         Map<String, double[]> zip3Centroids) {
+        this.cells = cells;
+        this.postalCentroids = postalCentroids;
+        this.zip3Centroids = zip3Centroids;
+    }
+
+    public static SpatialIndex build(LocationStore locations) {
+        Map<Long, List<Integer>> cellLists = new HashMap<>();
+        Map<String, double[]> postalSums = new HashMap<>();
+        Map<String, double[]> zip3Sums = new HashMap<>();
+
+        for (int i = 0; i < locations.size(); i++) {
+            double lat = locations.lat(i);
+            double lon = locations.lon(i);
+            if (Double.isNaN(lat) || Double.isNaN(lon)) {
+                continue;
+            }
+            cellLists.computeIfAbsent(cellKey(cellIndex(lat), cellIndex(lon)), k -> new ArrayList<>()).add(i);
+
+            String postalKey = BlockingIndex.postalKey(locations.postalCode(i));
+            if (postalKey != null) {
+                accumulate(postalSums, postalKey, lat, lon);
+                String zip3Key = BlockingIndex.zip3Key(postalKey);
+                if (zip3Key != null) {
+                    accumulate(zip3Sums, zip3Key, lat, lon);
+                }
+            }
+        }
+
+        Map<Long, int[]> cells = new HashMap<>(cellLists.size() * 2);
+        for (Map.Entry<Long, List<Integer>> entry : cellLists.entrySet()) {
+            cells.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return new SpatialIndex(cells, toCentroids(postalSums), toCentroids(zip3Sums));
+    }
+
+    /**
+     * Returns ordinals of located entries within {@code rings} grid rings of the postal code's centroid.
+     * Falls back to the 3-character prefix centroid when the exact postal code is not in the catalogue.
+     */
+    public int[] nearby(String postalCode, int rings) {
+        double[] centroid = centroid(postalCode);
+        if (centroid == null) {
+            return EMPTY;
+        }
+        int latCell = cellIndex(centroid[0]);
+        int lonCell = cellIndex(centroid[1]);
+
+        int[] result = EMPTY;
+        int size = 0;
+        for (int dLat = -rings; dLat <= rings; dLat++) {
+            for (int dLon = -rings; dLon <= rings; dLon++) {
+                int[] cell = cells.get(cellKey(latCell + dLat, lonCell + dLon));
+                if (cell == null) {
+                    continue;
+                }
+                if (size + cell.length > result.length) {
+                    result = Arrays.copyOf(result, Math.max(size + cell.length, result.length * 2));
+                }
+                System.arraycopy(cell, 0, result, size, cell.length);
+                size += cell.length;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Catalogue-derived {lat, lon} centroid for a postal code, or null when unknown.
+     */
+    public double[] centroid(String postalCode) {
+        String postalKey = BlockingIndex.postalKey(postalCode);
+        if (postalKey == null) {
+            return null;
+        }
+        double[] centroid = postalCentroids.get(postalKey);
+        if (centroid == null) {
+            String zip3Key = BlockingIndex.zip3Key(postalKey);
+            centroid = zip3Key != null ? zip3Centroids.get(zip3Key) : null;
+        }
+        return centroid;
+    }
+
+    static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    private static void accumulate(Map<String, double[]> sums, String key, double lat, double lon) {
+        double[] sum = sums.computeIfAbsent(key, k -> new double[3]);
+        sum[0] += lat;
+        sum[1] += lon;
+        sum[2]++;
+    }
+
+    private static Map<String, double[]> toCentroids(Map<String, double[]> sums) {
+        Map<String, double[]> centroids = new HashMap<>(sums.size() * 2);
+        for (Map.Entry<String, double[]> entry : sums.entrySet()) {
+            double[] sum = entry.getValue();
+            centroids.put(entry.getKey(), new double[]{sum[0] / sum[2], sum[1] / sum[2]});
+        }
+        return centroids;
+    }
+}
@@ -0,0 +1,51 @@
+package com.spade.codingscreen.matching;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code matching.stage} timer per {@link MatchStage}, registered up front with a percentile histogram
+ * and p50/p95/p99 so {@code /actuator/metrics/matching.stage?tag=stage:scoring} reports latency percentiles.
+ * <p>
+ * Callers measure with {@link System#nanoTime()} and hand over elapsed nanoseconds; the timer is picked by
+ * ordinal and recorded directly, so recording allocates nothing and can stay on in production.
+ * Normalize, candidates and scoring are recorded by {@link MerchantMatcher} on cache misses; deserialize and
+ * serialize are recorded around the JSON bodies of the servlet solution endpoints. Index builds are timed
+ * separately by {@link MatchIndexService}, so startup and reloads stay out of request percentiles.
+ */
+@Component
+public class StageTimers {
+
+    static final String TIMER_NAME = "matching.stage";
+
+    private final Timer[] timers = new Timer[MatchStage.values().length];
+
+    public StageTimers(MeterRegistry meterRegistry) {
+        for (MatchStage stage : MatchStage.values()) {
+            timers[stage.ordinal()] = latencyTimer(TIMER_NAME, "Time spent in each stage of serving a match request")
+                .tag("stage", stage.getTagValue())
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Timer builder shared by the pipeline latency timers: a percentile histogram bounded to 1 us .. 30 s
+     * plus client-side p50, p95 and p99.
+     */
+    public static Timer.Builder latencyTimer(String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(1_000))
+            .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+
+    public void record(MatchStage stage, long nanos) {
+        timers[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
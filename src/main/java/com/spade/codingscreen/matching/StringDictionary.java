@@ -0,0 +1,81 @@
+package com.spade.codingscreen.matching;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense int ids to distinct strings in first-seen order, so columns that repeat a handful of values
+ * (city, state, a corporation's DBA or website) can hold one canonical {@code String} per value and be
+ * compared by id. A null value has id {@link #NONE}.
+ * <p>
+ * Encoding is not thread-safe; once fully built and safely published, lookups may run concurrently.
+ */
+public final class StringDictionary {
+
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> ids;
+    private String[] values;
+    private int size;
+
+    public StringDictionary() {
+        this(16);
+    }
+
+    public StringDictionary(int expectedSize) {
+        this.ids = new HashMap<>(Math.max(16, expectedSize * 2));
+        this.values = new String[Math.max(16, expectedSize)];
+    }
+
+    /**
+     * Id of {@code value}, assigning the next id when it has not been seen.
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = size;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            ids.put(value, id);
+        }
+        return id;
+    }
+
+    /**
+     * Id of {@code value} without assigning one, or {@link #NONE}.
+     */
+    public int idOf(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer id = ids.get(value);
+        return id == null ? NONE : id;
+    }
+
+    /**
+     * The canonical instance equal to {@code value}, registering {@code value} if it is new.
+     */
+    public String intern(String value) {
+        return decode(encode(value));
+    }
+
+    public String decode(int id) {
+        return id == NONE ? null : values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        ids.clear();
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,109 @@
+package com.spade.codingscreen.matching;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Strings packed as UTF-8 into one shared byte array. A string is referred to by an int ref, with
+ * {@link #NULL} standing for null, and is only decoded when read.
+ */
+final class TextArena {
+
+    static final int NULL = -1;
+
+    private final byte[] bytes;
+    private final int[] starts;
+
+    private TextArena(byte[] bytes, int[] starts) {
+        this.bytes = bytes;
+        this.starts = starts;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    String get(int ref) {
+        return ref == NULL ? null : new String(bytes, starts[ref], starts[ref + 1] - starts[ref], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the string at {@code ref} equals {@code value}, compared without decoding when it is ASCII.
+     */
+    boolean matches(int ref, String value) {
+        if (ref == NULL || value == null) {
+            return ref == NULL && value == null;
+        }
+        int start = starts[ref];
+        int length = starts[ref + 1] - start;
+        if (length != value.length()) {
+            return value.equals(get(ref)); // multi-byte UTF-8 is longer than its char count
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[start + i];
+            if (b < 0) {
+                return value.equals(get(ref));
+            }
+            if (b != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static final class Builder {
+
+        private byte[] bytes = new byte[1 << 12];
+        private int[] starts = new int[1 << 8];
+        private int size;
+        private final Map<String, Integer> interned = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Appends {@code value} and returns its ref.
+         */
+        int add(String value) {
+            if (value == null) {
+                return NULL;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int start = starts[size];
+            if (start + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, start + encoded.length));
+            }
+            System.arraycopy(encoded, 0, bytes, start, encoded.length);
+            if (size + 2 > starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+            starts[size + 1] = start + encoded.length;
+            return size++;
+        }
+
+        /**
+         * Like {@link #add} but returns the existing ref when an equal string was interned before.
+         */
+        int intern(String value) {
+            if (value == null) {
+                return NULL;
+            }
+            Integer ref = interned.get(value);
+            if (ref == null) {
+                ref = add(value);
+                interned.put(value, ref);
+            }
+            return ref;
+        }
+
+        int size() {
+            return size;
+        }
+
+        TextArena build() {
+            return new TextArena(Arrays.copyOf(bytes, starts[size]), Arrays.copyOf(starts, size + 1));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.spade.codingscreen.matching;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Character-trigram inverted index over location names and their corporation's legal and DBA names.
+ * <p>
+ * Text is folded to a 37-symbol alphabet (a-z, 0-9, space), so every trigram maps to a dense slot in
+ * a {@code 37^3} posting table and no hashing is needed. Postings are sorted runs of location ordinals
+ * laid end to end in one buffer, with {@code offsets[gram]} marking where each run starts, so the table
+ * can be served straight from a {@link MatchIndexFile memory-mapped index file}. A query only touches the
+ * postings of its own grams, so its cost depends on how common those grams are, not on catalogue size.
+ */
+public final class TrigramIndex {
+
+    private static final int ALPHABET = 37;
+    private static final int SPACE = 36;
+    static final int GRAM_SLOTS = ALPHABET * ALPHABET * ALPHABET;
+    private static final int[] EMPTY = new int[0];
+    // Shared by every snapshot and grown to the largest catalogue seen, so a reload does not leave
+    // count arrays sized for an index that is no longer served
+    private static final ScratchPool<Scratch> SCRATCH = new ScratchPool<>(Scratch::new);
+
+    private final IntBuffer offsets;
+    private final IntBuffer postings;
+    private final int documentCount;
+
+    private TrigramIndex(IntBuffer offsets, IntBuffer postings, int documentCount) {
+        this.offsets = offsets;
+        this.postings = postings;
+        this.documentCount = documentCount;
+    }
+
+    public static TrigramIndex build(LocationStore locations) {
+        int[] sizes = new int[GRAM_SLOTS];
+        int[][] gramsPerDoc = new int[locations.size()][];
+        for (int doc = 0; doc < locations.size(); doc++) {
+            IndexedCorporation corp = locations.corporation(doc);
+            int[] grams = distinctGrams(locations.name(doc), corp.getDoingBusinessAs(), corp.getLegalName());
+            gramsPerDoc[doc] = grams;
+            for (int gram : grams) {
+                sizes[gram]++;
+            }
+        }
+
+        int[] offsets = new int[GRAM_SLOTS + 1];
+        for (int gram = 0; gram < GRAM_SLOTS; gram++) {
+            offsets[gram + 1] = offsets[gram] + sizes[gram];
+        }
+        int[] postings = new int[offsets[GRAM_SLOTS]];
+        int[] fill = Arrays.copyOf(offsets, GRAM_SLOTS);
+        for (int doc = 0; doc < gramsPerDoc.length; doc++) {
+            for (int gram : gramsPerDoc[doc]) {
+                postings[fill[gram]++] = doc;
+            }
+        }
+        return new TrigramIndex(IntBuffer.wrap(offsets), IntBuffer.wrap(postings), locations.size());
+    }
+
+    /**
+     * Wraps an existing posting table: {@code offsets} holds {@code GRAM_SLOTS + 1} run boundaries into
+     * {@code postings}. Neither buffer is copied.
+     */
+    static TrigramIndex of(IntBuffer offsets, IntBuffer postings, int documentCount) {
+        if (offsets.limit() != GRAM_SLOTS + 1 || offsets.get(GRAM_SLOTS) != postings.limit()) {
+            throw new IllegalArgumentException("Posting offsets do not match the posting table");
+        }
+        return new TrigramIndex(offsets, postings, documentCount);
+    }
+
+    /**
+     * Returns up to {@code k} location ordinals sharing the most trigrams with {@code query},
+     * highest shared-gram count first.
+     */
+    public int[] topK(String query, int k) {
+        if (query == null || documentCount == 0 || k <= 0) {
+            return EMPTY;
+        }
+        int[] grams = distinctGrams(query);
+        if (grams.length == 0) {
+            return EMPTY;
+        }
+
+        Scratch s = SCRATCH.acquire();
+        try {
+            return topK(grams, k, s);
+        } finally {
+            SCRATCH.release(s);
+        }
+    }
+
+    private int[] topK(int[] grams, int k, Scratch s) {
+        s.ensure(documentCount);
+        int[] counts = s.counts;
+        int[] touched = s.touched;
+        int touchedCount = 0;
+        for (int gram : grams) {
+            for (int p = offsets.get(gram), end = offsets.get(gram + 1); p < end; p++) {
+                int doc = postings.get(p);
+                if (counts[doc]++ == 0) {
+                    touched[touchedCount++] = doc;
+                }
+            }
+        }
+
+        int size = Math.min(k, touchedCount);
+        int[] heap = new int[size];
+        int heapSize = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            if (heapSize < size) {
+                heap[heapSize] = doc;
+                siftUp(heap, heapSize++, counts);
+            } else if (counts[doc] > counts[heap[0]]) {
+                heap[0] = doc;
+                siftDown(heap, heapSize, counts);
+            }
+        }
+
+        // Drain the min-heap back to front so the result is ordered best first.
+        int[] result = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, counts);
+        }
+
+        for (int i = 0; i < touchedCount; i++) {
+            counts[touched[i]] = 0;
+        }
+        return result;
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    IntBuffer getOffsets() {
+        return offsets.duplicate();
+    }
+
+    IntBuffer getPostings() {
+        return postings.duplicate();
+    }
+
+    /**
+     * Extracts the sorted, de-duplicated gram slots of the given texts. Each text is padded with a
+     * space on both ends and runs of separators collapse to one space.
+     */
+    static int[] distinctGrams(String... texts) {
+        int[] grams = new int[32];
+        int count = 0;
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            int a = SPACE;
+            int b = SPACE;
+            int length = text.length();
+            for (int i = 0; i <= length; i++) {
+                int c = i < length ? fold(text.charAt(i)) : SPACE;
+                if (c < 0 || (c == SPACE && b == SPACE)) {
+                    continue;
+                }
+                if (a != SPACE || b != SPACE) {
+                    if (count == grams.length) {
+                        grams = Arrays.copyOf(grams, count * 2);
+                    }
+                    grams[count++] = (a * ALPHABET + b) * ALPHABET + c;
+                }
+                a = b;
+                b = c;
+            }
+        }
+
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Maps a character to the index alphabet: letters and digits keep their identity, any other
+     * separator becomes a space and apostrophes are dropped so "Dickey's" folds to "dickeys".
+     */
+    private static int fold(char ch) {
+        if (ch >= 'a' && ch <= 'z') {
+            return ch - 'a';
+        }
+        if (ch >= 'A' && ch <= 'Z') {
+            return ch - 'A';
+        }
+        if (ch >= '0' && ch <= '9') {
+            return 26 + (ch - '0');
+        }
+        if (ch == '\'' || ch == '\u2019') {
+            return -1;
+        }
+        return SPACE;
+    }
+
+    private static void siftUp(int[] heap, int index, int[] counts) {
+        int doc = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[doc]) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = doc;
+    }
+
+    private static void siftDown(int[] heap, int size, int[] counts) {
+        if (size == 0) {
+            return;
+        }
+        int index = 0;
+        int doc = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[doc] <= counts[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = doc;
+    }
+
+    /**
+     * Per-document counts, all zero between queries, and the documents a query touched.
+     */
+    private static final class Scratch {
+        int[] counts = EMPTY;
+        int[] touched = EMPTY;
+
+        void ensure(int documentCount) {
+            if (counts.length < documentCount) {
+                counts = new int[documentCount];
+                touched = new int[documentCount];
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.spade.codingscreen.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.UUID;
+
+/**
+ * Single-row marker of the data currently in the database. {@code --load-csv} replaces the generation
+ * before it writes anything, and {@code --build-index} stamps it into the index file, so a server can tell
+ * whether a file was built from the data it is about to serve with one primary-key lookup.
+ */
+@Entity
+@Table(name = "spade_load_generation")
+public class LoadGeneration {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "generation", columnDefinition = "TEXT")
+    private UUID generation;
+
+    public LoadGeneration() {
+    }
+
+    public LoadGeneration(UUID generation) {
+        this.id = ID;
+        this.generation = generation;
+    }
+
+    /**
+     * A fresh generation, replacing the stored one when saved.
+     */
+    public static LoadGeneration next() {
+        return new LoadGeneration(UUID.randomUUID());
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public UUID getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(UUID generation) {
+        this.generation = generation;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadGeneration{" +
+                "id=" + id +
+                ", generation=" + generation +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package com.spade.codingscreen.repository;
+
+import com.spade.codingscreen.model.LoadGeneration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the single {@link LoadGeneration} row.
+ */
+@Repository
+public interface LoadGenerationRepository extends JpaRepository<LoadGeneration, Integer> {
+}
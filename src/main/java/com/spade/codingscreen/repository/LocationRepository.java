@@ -3,8 +3,10 @@ package com.spade.codingscreen.repository;
 import com.spade.codingscreen.model.Corporation;
 import com.spade.codingscreen.model.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,5 +19,18 @@ public interface LocationRepository extends JpaRepository<Location, UUID> {
     Optional<Location> findByStoreIdAndCorporation(String storeId, Corporation corporation);
 
     Optional<Location> findByNameAndCityAndStateAndCorporation(String name, String city, String state, Corporation corporation);
+
+    @Query("SELECT l FROM Location l JOIN FETCH l.corporation")
+    List<Location> findAllWithCorporation();
+
+    /**
+     * The fields locations are matched on when loading CSV rows, for every location, without loading entities.
+     */
+    @Query("SELECT new com.spade.codingscreen.repository.LocationRepository$NaturalKey("
+        + "l.id, l.corporation.id, l.storeId, l.name, l.city, l.state) FROM Location l")
+    List<NaturalKey> findAllNaturalKeys();
+
+    record NaturalKey(UUID id, UUID corporationId, String storeId, String name, String city, String state) {
+    }
 }
 
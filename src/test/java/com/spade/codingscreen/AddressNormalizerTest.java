@@ -0,0 +1,59 @@
+package com.spade.codingscreen;
+
+import com.spade.codingscreen.matching.AddressNormalizer;
+import com.spade.codingscreen.matching.NormalizedAddress;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for street address normalization.
+ */
+public class AddressNormalizerTest {
+
+    @Test
+    public void testSplitsHouseNumberStreetAndUnit() {
+        NormalizedAddress address = AddressNormalizer.normalize("1900 University Blvd Ste 210");
+
+        assertEquals("1900", address.getHouseNumber());
+        assertEquals("UNIVERSITY BLVD", address.getStreet().toString());
+        assertEquals("210", address.getUnit());
+    }
+
+    @Test
+    public void testAppliesUspsAbbreviations() {
+        assertEquals("VETERANS PKWY", AddressNormalizer.normalize("220 Veterans Parkway").getStreet().toString());
+        assertEquals("W MCDOWELL RD", AddressNormalizer.normalize("701 West McDowell Road, Suite 101").getStreet().toString());
+        assertEquals("PEACHTREE ST NE", AddressNormalizer.normalize("1035 Peachtree Street Northeast").getStreet().toString());
+        assertEquals("MAIN WAY", AddressNormalizer.normalize("12 Main Wy").getStreet().toString());
+        assertEquals("HICKORY PIKE", AddressNormalizer.normalize("3300 Hickory Pke").getStreet().toString());
+    }
+
+    @Test
+    public void testJoinsAddressLines() {
+        NormalizedAddress address = AddressNormalizer.normalize("352B Harrison Ave", "Ste B");
+
+        assertEquals("352B", address.getHouseNumber());
+        assertEquals("HARRISON AVE", address.getStreet().toString());
+        assertEquals("B", address.getUnit());
+    }
+
+    @Test
+    public void testHashUnits() {
+        assertEquals("100", AddressNormalizer.normalize("1502 N Semoran Blvd # 100").getUnit());
+        assertEquals("100", AddressNormalizer.normalize("1502 N Semoran Blvd #100").getUnit());
+        assertEquals("N SEMORAN BLVD", AddressNormalizer.normalize("1502 N. Semoran Blvd.#100").getStreet().toString());
+    }
+
+    @Test
+    public void testGridHouseNumbersAndMissingNumbers() {
+        assertEquals("N83W15701", AddressNormalizer.normalize("N83w15701 Appleton Ave").getHouseNumber());
+
+        NormalizedAddress noNumber = AddressNormalizer.normalize("Highway 107");
+        assertNull(noNumber.getHouseNumber());
+        assertEquals("HWY 107", noNumber.getStreet().toString());
+
+        assertNull(AddressNormalizer.normalize((String) null).getHouseNumber());
+    }
+}
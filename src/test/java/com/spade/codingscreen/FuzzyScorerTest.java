@@ -0,0 +1,146 @@
+package com.spade.codingscreen;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spade.codingscreen.matching.FuzzyScorer;
+import com.spade.codingscreen.matching.FuzzyText;
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Parity tests for FuzzyScorer against the FuzzyWuzzy reference implementation.
+ */
+public class FuzzyScorerTest {
+
+    private static final int[] CUTOFFS = {0, 50, 75, 90, 100};
+
+    private static List<String> names;
+    private static List<String> addresses;
+
+    @BeforeAll
+    public static void loadRequests() throws IOException {
+        List<Map<String, Object>> requests = new ObjectMapper().readValue(Paths.get("data/requests.json").toFile(),
+            new TypeReference<List<Map<String, Object>>>() {});
+        names = new ArrayList<>();
+        addresses = new ArrayList<>();
+        for (Map<String, Object> request : requests) {
+            names.add((String) request.get("merchantName"));
+            addresses.add((String) request.get("address"));
+        }
+    }
+
+    @Test
+    public void testParityOnRequestMerchantNames() {
+        assertParityForAllPairs(names);
+    }
+
+    @Test
+    public void testParityOnRequestAddresses() {
+        assertParityForAllPairs(addresses);
+    }
+
+    @Test
+    public void testParityOnPerturbedNames() {
+        Random random = new Random(42);
+        for (String name : names) {
+            for (int i = 0; i < 20; i++) {
+                assertParity(name, perturb(name, random));
+            }
+        }
+    }
+
+    @Test
+    public void testParityWhenThreadsShareScratch() throws Exception {
+        // More threads than pooled buffers, each short-lived, so buffers are handed between threads and
+        // some callers fall back to a fresh allocation.
+        ExecutorService executor = Executors.newFixedThreadPool(4 * Runtime.getRuntime().availableProcessors() + 1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (String a : names) {
+                results.add(executor.submit(() -> names.forEach(b -> assertParity(a, b))));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+        String[] samples = {"", " ", "!!", "a", "A", "ab", "ba", "Walgreens", "WALGREENS #19978", "walgreens walgreens",
+            "Zoup! Eatery", "zoup eatery 101", "Café Müller", "foo_bar baz"};
+        for (String a : samples) {
+            for (String b : samples) {
+                assertParity(a, b);
+            }
+        }
+    }
+
+    private static void assertParityForAllPairs(List<String> values) {
+        for (String a : values) {
+            for (String b : values) {
+                assertParity(a, b);
+            }
+        }
+    }
+
+    private static void assertParity(String a, String b) {
+        FuzzyText ta = FuzzyText.of(a);
+        FuzzyText tb = FuzzyText.of(b);
+        String pair = "[" + a + "] vs [" + b + "]";
+
+        int ratio = FuzzySearch.ratio(a, b);
+        int partial = FuzzySearch.partialRatio(a, b);
+        int tokenSort = FuzzySearch.tokenSortRatio(a, b);
+        int tokenSet = FuzzySearch.tokenSetRatio(a, b);
+
+        for (int cutoff : CUTOFFS) {
+            assertEquals(withCutoff(ratio, cutoff), FuzzyScorer.ratio(ta, tb, cutoff), "ratio@" + cutoff + " " + pair);
+            assertEquals(withCutoff(partial, cutoff), FuzzyScorer.partialRatio(ta, tb, cutoff), "partialRatio@" + cutoff + " " + pair);
+            assertEquals(withCutoff(tokenSort, cutoff), FuzzyScorer.tokenSortRatio(ta, tb, cutoff), "tokenSortRatio@" + cutoff + " " + pair);
+            assertEquals(withCutoff(tokenSet, cutoff), FuzzyScorer.tokenSetRatio(ta, tb, cutoff), "tokenSetRatio@" + cutoff + " " + pair);
+        }
+    }
+
+    private static int withCutoff(int score, int cutoff) {
+        return score >= cutoff ? score : 0;
+    }
+
+    private static String perturb(String value, Random random) {
+        StringBuilder sb = new StringBuilder(value);
+        int edits = 1 + random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int op = random.nextInt(4);
+            int pos = sb.length() == 0 ? 0 : random.nextInt(sb.length());
+            char c = (char) ('a' + random.nextInt(26));
+            if (op == 0 || sb.length() == 0) {
+                sb.insert(pos, c);
+            } else if (op == 1) {
+                sb.deleteCharAt(pos);
+            } else if (op == 2) {
+                sb.setCharAt(pos, c);
+            } else {
+                sb.insert(pos, ' ');
+            }
+        }
+        if (random.nextBoolean()) {
+            sb.append(' ').append(value, 0, Math.min(value.length(), random.nextInt(8)));
+        }
+        return sb.toString();
+    }
+}
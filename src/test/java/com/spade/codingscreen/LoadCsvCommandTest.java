@@ -0,0 +1,215 @@
+package com.spade.codingscreen;
+
+import com.spade.codingscreen.cli.LoadCsvCommand;
+import com.spade.codingscreen.model.Corporation;
+import com.spade.codingscreen.model.LoadGeneration;
+import com.spade.codingscreen.model.Location;
+import com.spade.codingscreen.repository.CorporationRepository;
+import com.spade.codingscreen.repository.LoadGenerationRepository;
+import com.spade.codingscreen.repository.LocationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests for loading corporations and locations from CSV. A chunk size of two rows makes every file span
+ * several chunk transactions, parsed by more workers than the one-chunk queue lets run ahead of the writer.
+ */
+@SpringBootTest(properties = {"loader.chunk-size=2", "loader.parser-threads=3", "loader.queue-capacity=1"})
+public class LoadCsvCommandTest {
+
+    private static final String CORP_ID = "608ebf45-7f18-3a22-99ec-8a268104ce8c";
+    private static final String LOCATIONS_HEADER =
+        "id,name,street_address,address_line_1,address_line_2,city1,state,country,postal_code,store_id,lat,lon,h3_cell,corporation_id";
+
+    @Autowired
+    private LoadCsvCommand loadCsvCommand;
+
+    @Autowired
+    private CorporationRepository corporationRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private LoadGenerationRepository loadGenerationRepository;
+
+    @TempDir
+    Path dir;
+
+    private Path corporations;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        locationRepository.deleteAll();
+        corporationRepository.deleteAll();
+        corporations = Files.writeString(dir.resolve("corporations.csv"), String.join("\n",
+            "corporation_id,legal_name,doing_business_as,website",
+            CORP_ID + ",Walgreen Co.,Walgreens,https://www.walgreens.com",
+            "8a7a3a02-1bb9-3e1b-82b1-2f460964b77c,,Wing Shack,http://wingshackwings.com",
+            "2e1f0c6a-59a4-4f57-8a43-0f8a3c1e9b10,Walgreen Co.,Walgreens Pharmacy,https://www.walgreens.com"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        locationRepository.deleteAll();
+        corporationRepository.deleteAll();
+    }
+
+    @Test
+    public void testLoadCreatesAcrossChunksAndResolvesDuplicateCorporations() throws IOException {
+        Path locations = writeLocations(
+            location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "19978"),
+            location(UUID.randomUUID(), "Walgreens", "1525 Lake Ave", "Greece", "14615", "12345"),
+            location(UUID.randomUUID(), "Walgreens", "2150 Ridge Rd W", "Gates", "14626", "5002"));
+
+        load(locations);
+
+        // The third corporation row shares the first one's website and resolves to it
+        assertEquals(2, corporationRepository.count());
+        assertEquals(3, locationRepository.count());
+        Location dewey = locationRepository.findAll().stream()
+            .filter(location -> "19978".equals(location.getStoreId())).findFirst().orElseThrow();
+        assertEquals(UUID.fromString(CORP_ID), dewey.getCorporation().getId());
+    }
+
+    @Test
+    public void testLaterRowsAndReloadsUpdateExistingLocations() throws IOException {
+        UUID deweyId = UUID.randomUUID();
+        Path locations = writeLocations(
+            location(deweyId, "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "19978"),
+            location(UUID.randomUUID(), "Walgreens", "1525 Lake Ave", "Greece", "14615", "12345"),
+            location(UUID.randomUUID(), "Walgreens", "4433 Dewey Avenue", "Rochester", "14616", "19978"));
+
+        load(locations);
+        assertEquals(2, locationRepository.count());
+        assertEquals("4433 Dewey Avenue", locationRepository.findById(deweyId).orElseThrow().getStreetAddress());
+
+        load(writeLocations(location(UUID.randomUUID(), "Walgreens", "4433 Dewey Avenue", "Brighton", "14616", "19978")));
+        assertEquals(2, locationRepository.count());
+        assertEquals("Brighton", locationRepository.findById(deweyId).orElseThrow().getCity());
+    }
+
+    @Test
+    public void testRowsReusingAnIdUpdateThatRowWhenTheNaturalKeyChanged() throws IOException {
+        UUID id = UUID.randomUUID();
+        load(writeLocations(
+            location(id, "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "19978"),
+            location(id, "Walgreens", "1525 Lake Ave", "Greece", "14615", "12345")));
+
+        assertEquals(1, locationRepository.count());
+        assertEquals("Greece", locationRepository.findById(id).orElseThrow().getCity());
+
+        load(writeLocations(location(id, "Walgreens Pharmacy", "1525 Lake Ave", "Greece", "14615", "777")));
+        assertEquals(1, locationRepository.count());
+        assertEquals("Walgreens Pharmacy", locationRepository.findById(id).orElseThrow().getName());
+
+        // Every alias of the first corporation changes; its id is updated rather than inserted again
+        corporations = Files.writeString(dir.resolve("corporations-renamed.csv"), String.join("\n",
+            "corporation_id,legal_name,doing_business_as,website",
+            CORP_ID + ",Walgreens Boots Alliance,WBA,https://www.wba.com"));
+        load(writeLocations(location(id, "Walgreens Pharmacy", "1525 Lake Ave", "Greece", "14615", "777")));
+        assertEquals(2, corporationRepository.count());
+        assertEquals("WBA", corporationRepository.findById(UUID.fromString(CORP_ID)).orElseThrow().getDoingBusinessAs());
+    }
+
+    @Test
+    public void testRowsFollowKeysAnEarlierRowOfTheChunkMoved() throws IOException {
+        UUID id = UUID.randomUUID();
+        load(writeLocations(location(id, "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "19978")));
+
+        // The first row moves the location to store 20000; the second, in the same chunk, finds it there
+        load(writeLocations(
+            location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "20000"),
+            location(UUID.randomUUID(), "Walgreens", "1525 Lake Ave", "Greece", "14615", "20000")));
+
+        assertEquals(1, locationRepository.count());
+        Location moved = locationRepository.findById(id).orElseThrow();
+        assertEquals("20000", moved.getStoreId());
+        assertEquals("Greece", moved.getCity());
+    }
+
+    @Test
+    public void testEachLoadRecordsANewGeneration() throws IOException {
+        Path locations = writeLocations(location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "19978"));
+
+        load(locations);
+        UUID first = loadGenerationRepository.findById(LoadGeneration.ID).orElseThrow().getGeneration();
+        load(locations);
+        UUID second = loadGenerationRepository.findById(LoadGeneration.ID).orElseThrow().getGeneration();
+        assertNotEquals(first, second);
+
+        loadCsvCommand.run(new String[]{"--load-csv", "--corporations", corporations.toString(),
+            "--locations", locations.toString(), "--dry-run"});
+        assertEquals(second, loadGenerationRepository.findById(LoadGeneration.ID).orElseThrow().getGeneration());
+    }
+
+    @Test
+    public void testDryRunWritesNothing() throws IOException {
+        Path locations = writeLocations(
+            location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "19978"),
+            location(UUID.randomUUID(), "Walgreens", "1525 Lake Ave", "Greece", "14615", "12345"),
+            location(UUID.randomUUID(), "Walgreens", "2150 Ridge Rd W", "Gates", "14626", "5002"));
+
+        loadCsvCommand.run(new String[]{"--load-csv", "--corporations", corporations.toString(),
+            "--locations", locations.toString(), "--dry-run"});
+
+        assertEquals(0, corporationRepository.count());
+        assertEquals(0, locationRepository.count());
+    }
+
+    @Test
+    public void testUnparseableRowStopsLoadAfterEarlierChunks() throws IOException {
+        Path locations = writeLocations(
+            location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "19978"),
+            location(UUID.randomUUID(), "Walgreens", "1525 Lake Ave", "Greece", "14615", "12345"),
+            location(UUID.randomUUID(), "Walgreens", "2150 Ridge Rd W", "Gates", "14626", "5002")
+                .replace(CORP_ID, "not-a-uuid"),
+            location(UUID.randomUUID(), "Walgreens", "3220 Chili Ave", "Chili", "14624", "7001"));
+
+        load(locations);
+
+        // The first chunk is committed before the writer reaches the chunk that failed to parse
+        assertEquals(2, locationRepository.count());
+    }
+
+    @Test
+    public void testAmbiguousAliasStopsLoadInsteadOfPickingACorporation() throws IOException {
+        corporationRepository.save(new Corporation(UUID.randomUUID(), "Dup East LLC", "Dup", "https://dup.example"));
+        corporationRepository.save(new Corporation(UUID.randomUUID(), "Dup West LLC", "Dup", "https://dup.example"));
+        corporations = Files.writeString(dir.resolve("corporations-dup.csv"), String.join("\n",
+            "corporation_id,legal_name,doing_business_as,website",
+            UUID.randomUUID() + ",Dup Inc.,Dup Stores,https://dup.example"));
+
+        load(writeLocations(location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave", "Rochester", "14616", "19978")));
+
+        assertEquals(2, corporationRepository.count());
+        assertEquals(0, locationRepository.count());
+    }
+
+    private void load(Path locations) {
+        loadCsvCommand.run(new String[]{"--load-csv", "--corporations", corporations.toString(),
+            "--locations", locations.toString()});
+    }
+
+    private Path writeLocations(String... rows) throws IOException {
+        return Files.writeString(dir.resolve("locations-" + UUID.randomUUID() + ".csv"),
+            LOCATIONS_HEADER + "\n" + String.join("\n", rows));
+    }
+
+    private static String location(UUID id, String name, String street, String city, String postalCode, String storeId) {
+        return String.join(",", id.toString(), name, street, "", "", city, "NY", "USA", postalCode, storeId,
+            "43.2", "-77.6", "", CORP_ID);
+    }
+}
@@ -0,0 +1,67 @@
+package com.spade.codingscreen;
+
+import com.spade.codingscreen.dto.MerchantRequest;
+import com.spade.codingscreen.matching.MatchCache;
+import com.spade.codingscreen.matching.MatchIndex;
+import com.spade.codingscreen.matching.MatchResult;
+import com.spade.codingscreen.matching.MatchTier;
+import com.spade.codingscreen.model.Corporation;
+import com.spade.codingscreen.model.Countries;
+import com.spade.codingscreen.model.Location;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the match result cache.
+ */
+public class MatchCacheTest {
+
+    private final Corporation corp = new Corporation(UUID.randomUUID(), "Walgreen Co.", "Walgreens", null);
+    private final Location location = new Location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave", null, null,
+        "Rochester", "NY", Countries.USA, "14616", null, null, null, null, corp);
+
+    @Test
+    public void testCachesByNormalizedRequestAndIndexVersion() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MatchCache cache = new MatchCache(registry, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        MatchIndex index = MatchIndex.build(List.of(location), List.of(corp));
+        MerchantRequest request = new MerchantRequest("WALGREENS", "4433 DEWEY AVE", "ROCHESTER", "NY", "14616");
+        MerchantRequest sameMerchant = new MerchantRequest(" walgreens ", "4433 Dewey Ave", "Rochester", "ny", "14616");
+
+        Optional<MatchResult> first = cache.get(index, request, r -> {
+            loads.incrementAndGet();
+            return Optional.of(new MatchResult(index.getLocation(0), 90, MatchTier.FUZZY));
+        });
+        Optional<MatchResult> second = cache.get(index, sameMerchant, r -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(location.getId(), first.get().getLocation().getId());
+        assertEquals(location.getId(), second.get().getLocation().getId());
+        assertEquals(90, second.get().getScore());
+
+        MatchIndex rebuilt = MatchIndex.build(List.of(location), List.of(corp));
+        assertTrue(rebuilt.getVersion() > index.getVersion());
+        Optional<MatchResult> afterReload = cache.get(rebuilt, request, r -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(2, loads.get());
+        assertTrue(afterReload.isEmpty());
+        assertEquals(1, cache.size());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+}
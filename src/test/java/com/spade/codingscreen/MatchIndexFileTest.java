@@ -0,0 +1,78 @@
+package com.spade.codingscreen;
+
+import com.spade.codingscreen.matching.BlockingTier;
+import com.spade.codingscreen.matching.IndexedLocation;
+import com.spade.codingscreen.matching.MatchIndex;
+import com.spade.codingscreen.matching.MatchIndexFile;
+import com.spade.codingscreen.model.Corporation;
+import com.spade.codingscreen.model.Countries;
+import com.spade.codingscreen.model.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for writing a match index to a binary file and mapping it back.
+ */
+public class MatchIndexFileTest {
+
+    @TempDir
+    Path dir;
+
+    private final Corporation walgreens = new Corporation(UUID.randomUUID(), "Walgreen Co.", "Walgreens", "https://www.walgreens.com");
+    private final Corporation unused = new Corporation(UUID.randomUUID(), "Shawarma King LLC", "Shawarma King", null);
+
+    @Test
+    public void testRoundTripPreservesLocationsAndIndexes() throws IOException {
+        Location dewey = new Location(UUID.randomUUID(), "Walgreens #5002", "4433 Dewey Ave", null, null, "Rochester",
+            "NY", Countries.USA, "14616", "5002", 43.2, -77.6, null, walgreens);
+        Location oneida = new Location(UUID.randomUUID(), "Walgreens", null, "200 Main St", "Suite 4", "Oneida",
+            "NY", Countries.USA, "13421", null, null, null, null, walgreens);
+        MatchIndex built = MatchIndex.build(List.of(dewey, oneida), List.of(walgreens, unused));
+
+        UUID generation = UUID.randomUUID();
+
+        Path file = dir.resolve("match-index.bin");
+        MatchIndexFile.write(built, generation, file);
+        MatchIndex mapped = MatchIndexFile.read(file);
+
+        assertEquals(generation, MatchIndexFile.readGeneration(file));
+
+        assertEquals(2, mapped.getLocationCount());
+        assertEquals(2, mapped.getCorporationCount());
+        IndexedLocation first = mapped.getLocation(dewey.getId());
+        assertEquals("4433 Dewey Ave", first.getStreetAddress());
+        assertEquals(43.2, first.getLat());
+        assertEquals("Walgreen Co.", first.getCorporation().getLegalName());
+        IndexedLocation second = mapped.getLocation(1);
+        assertEquals("200 Main St Suite 4", second.getStreetAddress());
+        assertNull(second.getLat());
+        assertNull(mapped.getCorporation(unused.getId()).getWebsite());
+
+        assertArrayEquals(new int[]{1}, mapped.getBlockingIndex().block(BlockingTier.POSTAL_CODE, "13421", null));
+        assertArrayEquals(new int[]{0, 1}, mapped.getBlockingIndex().block(BlockingTier.STATE, null, "NY"));
+        assertArrayEquals(built.getTrigramIndex().topK("walgreens rochester", 2),
+            mapped.getTrigramIndex().topK("walgreens rochester", 2));
+        assertArrayEquals(built.getExactKeyIndex().storeId("5002", "walgreens"),
+            mapped.getExactKeyIndex().storeId("5002", "walgreens"));
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("not-an-index.bin");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> MatchIndexFile.read(file));
+        assertThrows(IOException.class, () -> MatchIndexFile.readGeneration(file));
+    }
+}
@@ -0,0 +1,253 @@
+package com.spade.codingscreen;
+
+import com.spade.codingscreen.matching.BlockingIndex;
+import com.spade.codingscreen.matching.BlockingTier;
+import com.spade.codingscreen.matching.CorporationAliasDictionary;
+import com.spade.codingscreen.matching.CorporationAliasDictionary.Kind;
+import com.spade.codingscreen.matching.ExactKeyIndex;
+import com.spade.codingscreen.matching.FuzzyText;
+import com.spade.codingscreen.matching.IndexedLocation;
+import com.spade.codingscreen.matching.LocationStore;
+import com.spade.codingscreen.matching.MatchIndex;
+import com.spade.codingscreen.matching.PhoneticIndex;
+import com.spade.codingscreen.matching.SpatialIndex;
+import com.spade.codingscreen.matching.StringDictionary;
+import com.spade.codingscreen.matching.TrigramIndex;
+import com.spade.codingscreen.model.Corporation;
+import com.spade.codingscreen.model.Countries;
+import com.spade.codingscreen.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for building the in-memory match index and its candidate indexes.
+ */
+public class MatchIndexTest {
+
+    private final Corporation corp = new Corporation(UUID.randomUUID(), "Walgreen Co.", "Walgreens", "https://www.walgreens.com");
+
+    private Location location(String name, String city, String state, String postalCode) {
+        return new Location(UUID.randomUUID(), name, "1 Main St", null, null, city, state, Countries.USA,
+            postalCode, null, null, null, null, corp);
+    }
+
+    @Test
+    public void testBuildIndexesEveryLocation() {
+        MatchIndex index = MatchIndex.build(
+            List.of(location("Walgreens", "Rochester", "NY", "14616"), location("Walgreens", "Oneida", "NY", "13421")),
+            List.of(corp));
+
+        assertEquals(2, index.getLocationCount());
+        assertEquals(1, index.getCorporationCount());
+        assertEquals("Walgreens", index.getCorporation(corp.getId()).getDoingBusinessAs());
+    }
+
+    @Test
+    public void testLocationStoreColumns() {
+        Location dewey = new Location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave", null, null, "Rochester", "NY",
+            Countries.USA, "14616", "5002", 43.2, -77.6, null, corp);
+        Location oneida = location("Walgreens", "Oneida", "NY", "13421");
+        MatchIndex index = MatchIndex.build(List.of(dewey, oneida), List.of(corp));
+        LocationStore store = index.getLocations();
+
+        assertEquals(1, store.ordinalOf(oneida.getId()));
+        assertEquals(-1, store.ordinalOf(UUID.randomUUID()));
+        assertSame(store.nameText(0), store.nameText(1));
+        assertEquals(43.2, store.lat(0));
+        assertTrue(Double.isNaN(store.lat(1)));
+        assertTrue(store.storeIdEquals(0, "5002"));
+        assertFalse(store.storeIdEquals(0, "500"));
+        assertFalse(store.storeIdEquals(1, "5002"));
+        assertEquals("4433", store.houseNumber(0));
+        assertTrue(store.houseNumberConflicts(0, "4435"));
+        assertFalse(store.houseNumberConflicts(0, null));
+
+        IndexedLocation view = index.getLocation(dewey.getId());
+        assertEquals("4433 Dewey Ave", view.getStreetAddress());
+        assertEquals("Rochester", view.getCity());
+        assertNull(index.getLocation(1).getLat());
+        assertSame(index.getCorporation(corp.getId()), view.getCorporation());
+    }
+
+    @Test
+    public void testStringDictionaryAndCityForms() {
+        StringDictionary dictionary = new StringDictionary();
+        String first = new String("Rochester");
+        assertEquals(0, dictionary.encode(first));
+        assertEquals(1, dictionary.encode("Oneida"));
+        assertSame(first, dictionary.intern(new String("Rochester")));
+        assertEquals(StringDictionary.NONE, dictionary.idOf("Salem"));
+        assertEquals(StringDictionary.NONE, dictionary.encode(null));
+        assertEquals(2, dictionary.size());
+
+        MatchIndex index = MatchIndex.build(List.of(
+            location("A", "ROCHESTER", "NY", "14616"),
+            location("B", "Rochester", "NY", "14615"),
+            location("C", "Oneida", "NY", "13421")), List.of(corp));
+        LocationStore store = index.getLocations();
+
+        assertEquals("ROCHESTER", store.city(0));
+        assertEquals(store.cityForm(0), store.cityForm(1));
+        assertNotEquals(store.cityForm(0), store.cityForm(2));
+        assertEquals(store.cityForm(2), store.cityForm(FuzzyText.of("oneida")));
+        assertEquals(StringDictionary.NONE, store.cityForm(FuzzyText.of("Salem")));
+    }
+
+    @Test
+    public void testBlockingTiers() {
+        MatchIndex index = MatchIndex.build(List.of(
+            location("A", "Rochester", "NY", "14616"),
+            location("B", "Rochester", "NY", "14615-2201"),
+            location("C", "Oneida", "NY", "13421"),
+            location("D", "Salem", "OR", "97304")), List.of(corp));
+        BlockingIndex blocking = index.getBlockingIndex();
+
+        assertArrayEquals(new int[]{0}, blocking.block(BlockingTier.POSTAL_CODE, "14616", "NY"));
+        assertArrayEquals(new int[]{1}, blocking.block(BlockingTier.POSTAL_CODE, "14615", "NY"));
+        assertArrayEquals(new int[]{0, 1}, blocking.block(BlockingTier.ZIP3, "14699", "NY"));
+        assertArrayEquals(new int[]{0, 1, 2}, blocking.block(BlockingTier.STATE, "10001", " ny "));
+        assertArrayEquals(new int[0], blocking.block(BlockingTier.POSTAL_CODE, null, "NY"));
+    }
+
+    @Test
+    public void testTrigramTopKRanksBySharedGrams() {
+        Corporation madeleine = new Corporation(UUID.randomUUID(), null, "La Madeleine", null);
+        Corporation dickeys = new Corporation(UUID.randomUUID(), null, "Dickey's Barbecue Pit", null);
+        Location pearland = location("La Madeleine Pearland", "Pearland", "TX", "77584");
+        pearland.setCorporation(madeleine);
+        Location springboro = location("Dickey's Barbeque Pit", "Springboro", "OH", "45066");
+        springboro.setCorporation(dickeys);
+
+        MatchIndex index = MatchIndex.build(
+            List.of(location("Walgreens", "Rochester", "NY", "14616"), pearland, springboro),
+            List.of(corp, madeleine, dickeys));
+        TrigramIndex trigrams = index.getTrigramIndex();
+
+        int[] top = trigrams.topK("La Madeleine French Country Cafe", 2);
+        assertEquals(1, top[0]);
+        assertArrayEquals(new int[]{2}, trigrams.topK("DICKEYS BBQ PIT", 1));
+        assertArrayEquals(new int[0], trigrams.topK("   ", 5));
+    }
+
+    @Test
+    public void testPhoneticTopKMatchesSoundAlikeNames() {
+        Corporation truBoba = new Corporation(UUID.randomUUID(), null, "Tru Boba", null);
+        Location cafe = location("Tru Boba Cafe", "Austin", "TX", "78701");
+        cafe.setCorporation(truBoba);
+
+        MatchIndex index = MatchIndex.build(
+            List.of(location("Walgreens", "Rochester", "NY", "14616"), cafe),
+            List.of(corp, truBoba));
+        PhoneticIndex phonetic = index.getPhoneticIndex();
+
+        assertArrayEquals(new int[]{0}, phonetic.topK("WALLGREENS #1234", 1));
+        assertEquals(1, phonetic.topK("Truboba", 2)[0]);
+        assertEquals(1, phonetic.topK("Tru Bobba Cafe", 2)[0]);
+        assertArrayEquals(new int[0], phonetic.topK("   ", 5));
+        assertArrayEquals(new int[0], phonetic.topK("AB", 5));
+    }
+
+    @Test
+    public void testSpatialNearbyUsesCatalogueCentroids() {
+        Location dewey = location("Walgreens", "Rochester", "NY", "14616");
+        dewey.setLat(43.2006);
+        dewey.setLon(-77.6471);
+        Location lake = location("Walgreens", "Rochester", "NY", "14612");
+        lake.setLat(43.2281);
+        lake.setLon(-77.6183);
+        Location oneida = location("Walgreens", "Oneida", "NY", "13421");
+        oneida.setLat(43.0901);
+        oneida.setLon(-75.6515);
+
+        MatchIndex index = MatchIndex.build(List.of(dewey, lake, oneida,
+            location("Walgreens", "Rochester", "NY", "14615")), List.of(corp));
+        SpatialIndex spatial = index.getSpatialIndex();
+
+        assertArrayEquals(new int[]{0, 1}, Arrays.stream(spatial.nearby("14616", 1)).sorted().toArray());
+        assertArrayEquals(new int[]{2}, spatial.nearby("13421", 2));
+        assertEquals(2, spatial.nearby("14699", 1).length);
+        assertArrayEquals(new int[0], spatial.nearby("97304", 2));
+        assertEquals(2, spatial.nearby("14615", 1).length);
+        assertNull(spatial.centroid("97304"));
+    }
+
+    @Test
+    public void testExactKeyAndStoreIdLookups() {
+        Corporation other = new Corporation(UUID.randomUUID(), "Shawarma King LLC", "Shawarma King", null);
+        Location dewey = new Location(UUID.randomUUID(), "Walgreens", "4433 Dewey Ave.", null, null, "Rochester",
+            "NY", Countries.USA, "14616-1234", "5002", null, null, null, corp);
+        Location kebab = new Location(UUID.randomUUID(), "Shawarma King", "10 Main St", null, null, "Madison",
+            "WI", Countries.USA, "53703", "5002", null, null, null, other);
+
+        MatchIndex index = MatchIndex.build(List.of(dewey, kebab), List.of(corp, other));
+        ExactKeyIndex exact = index.getExactKeyIndex();
+
+        assertArrayEquals(new int[]{0}, exact.exact("walgreens", "4433", "14616"));
+        assertArrayEquals(new int[0], exact.exact("walgreens", "4435", "14616"));
+        assertArrayEquals(new int[0], exact.exact(null, "4433", "14616"));
+        assertArrayEquals(new int[]{0}, exact.storeId("05002", "walgreen"));
+        assertArrayEquals(new int[]{1}, exact.storeId("5002", "shawarma king"));
+        assertArrayEquals(new int[0], exact.storeId("5002", "cvs pharmacy"));
+    }
+
+    @Test
+    public void testAliasDictionaryExactAndPrefixLookups() {
+        UUID walgreens = UUID.randomUUID();
+        UUID walmart = UUID.randomUUID();
+        UUID franchisee = UUID.randomUUID();
+        CorporationAliasDictionary aliases = CorporationAliasDictionary.builder()
+            .addCorporation(walgreens, "Walgreen Co.", "Walgreens", "https://www.walgreens.com")
+            .addCorporation(walmart, "Walmart Inc.", "Walmart", "walmart.com")
+            .addStoreName("Walgreens #5002", walgreens)
+            .addStoreName("Walmart Supercenter", walmart)
+            .addStoreName("Walgreens", franchisee)
+            .build();
+
+        assertArrayEquals(new UUID[]{walgreens}, aliases.lookup(Kind.WEBSITE, "https://www.walgreens.com"));
+        assertArrayEquals(new UUID[]{walmart}, aliases.lookup(Kind.DOING_BUSINESS_AS, "Walmart"));
+        assertArrayEquals(new UUID[]{walmart}, aliases.lookup(Kind.LEGAL_NAME, "Walmart Inc."));
+        assertArrayEquals(new UUID[0], aliases.lookup(Kind.DOING_BUSINESS_AS, "walmart"));
+        assertArrayEquals(new UUID[0], aliases.lookup(Kind.LEGAL_NAME, "Walmart"));
+
+        assertArrayEquals(new UUID[]{walgreens, franchisee}, aliases.lookup(Kind.NAME_KEY, "walgreens"));
+        assertArrayEquals(new UUID[]{walgreens}, aliases.lookup(Kind.NAME_KEY, "walgreen"));
+        assertArrayEquals(new UUID[]{walmart}, aliases.longestPrefix(Kind.NAME_KEY, "walmart supercenter 4512"));
+        assertArrayEquals(new UUID[]{walmart}, aliases.longestPrefix(Kind.NAME_KEY, "walmart neighborhood market"));
+        assertArrayEquals(new UUID[0], aliases.longestPrefix(Kind.NAME_KEY, "walmartx"));
+        assertArrayEquals(new UUID[0], aliases.lookup(Kind.NAME_KEY, "wal"));
+    }
+
+    @Test
+    public void testDomainStemResolution() {
+        UUID indiaPalace = UUID.randomUUID();
+        UUID wingShack = UUID.randomUUID();
+        UUID zocalo = UUID.randomUUID();
+        UUID marketplace1 = UUID.randomUUID();
+        UUID marketplace2 = UUID.randomUUID();
+        CorporationAliasDictionary aliases = CorporationAliasDictionary.builder()
+            .addCorporation(indiaPalace, "Talwar And Latka", "India Palace Restaurant", "http://indiapalacenh.com")
+            .addCorporation(wingShack, null, "Wing Shack", "http://wingshackwings.com")
+            .addCorporation(zocalo, null, "El Zocalo Supermarket", "https://el-zocalo-supermarket.com/")
+            .addCorporation(marketplace1, null, "Zoup Eatery", "https://restaurants.eatzeats.com/mi/southfield/")
+            .addCorporation(marketplace2, null, "Other Eatery", "https://www.eatzeats.com")
+            .build();
+
+        assertEquals(indiaPalace, aliases.resolveStem(Kind.DOMAIN_STEM, "indiapalace", 5));
+        assertEquals(wingShack, aliases.resolveStem(Kind.DOMAIN_STEM, "wingshackwingsbar", 5));
+        assertEquals(zocalo, aliases.resolveStem(Kind.DOMAIN_STEM, "elzocalosupermarket", 5));
+        assertNull(aliases.resolveStem(Kind.DOMAIN_STEM, "eatzeats", 5));
+        assertNull(aliases.resolveStem(Kind.DOMAIN_STEM, "wing", 5));
+        assertNull(aliases.resolveStem(Kind.DOMAIN_STEM, "pizzaranch", 5));
+    }
+}
@@ -0,0 +1,188 @@
+package com.spade.codingscreen;
+
+import com.spade.codingscreen.dto.MerchantRequest;
+import com.spade.codingscreen.matching.MatchIndexService;
+import com.spade.codingscreen.model.Corporation;
+import com.spade.codingscreen.model.Countries;
+import com.spade.codingscreen.model.Location;
+import com.spade.codingscreen.repository.CorporationRepository;
+import com.spade.codingscreen.repository.LocationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the reactive (Netty/WebFlux) deployment of the solution endpoints.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveSolutionRoutesTest {
+
+    private static final UUID DEWEY_LOCATION_ID = UUID.fromString("4b22ad83-85d6-3144-898b-d27040118adc");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private CorporationRepository corporationRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private MatchIndexService matchIndexService;
+
+    @BeforeEach
+    public void setUp() {
+        locationRepository.deleteAll();
+        corporationRepository.deleteAll();
+
+        Corporation walgreens = new Corporation(UUID.randomUUID(), "Walgreen Co.", "Walgreens", "https://walgreens.com");
+        corporationRepository.save(walgreens);
+        locationRepository.save(new Location(DEWEY_LOCATION_ID, "Walgreens", "4433 Dewey Ave", null, null,
+            "Rochester", "NY", Countries.USA, "14616", "19978", 43.2, -77.6, null, walgreens));
+        matchIndexService.refresh();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        locationRepository.deleteAll();
+        corporationRepository.deleteAll();
+        matchIndexService.refresh();
+    }
+
+    @Test
+    public void testRunsOnReactiveStack() {
+        assertTrue(context instanceof ReactiveWebApplicationContext);
+    }
+
+    @Test
+    public void testSolutionAndBatchRoutes() {
+        MerchantRequest request = new MerchantRequest("WALGREENS #19978", "4433 Dewey Ave", "Rochester", "NY", "14616");
+
+        webTestClient.post().uri("/solution/")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.location.id").isEqualTo(DEWEY_LOCATION_ID.toString());
+
+        webTestClient.post().uri("/solution/")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new MerchantRequest("NOPE", null, null, null, null))
+            .exchange()
+            .expectStatus().isNotFound()
+            .expectBody().jsonPath("$.detail").exists();
+
+        webTestClient.post().uri("/solution/?explain=true&k=abc")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        webTestClient.post().uri("/solution/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of(request, new MerchantRequest("NOPE", null, null, null, null)))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$[0].location.id").isEqualTo(DEWEY_LOCATION_ID.toString())
+            .jsonPath("$[1]").doesNotExist();
+
+        webTestClient.post().uri("/solution/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("[null]")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.detail").exists();
+    }
+
+    @Test
+    public void testRecordingEndpointIsNotExposedByDefault() {
+        webTestClient.post().uri("/actuator/matchrecording")
+            .exchange()
+            .expectStatus().isNotFound();
+        webTestClient.post().uri("/admin/recording")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testStreamRouteWritesNdjson() {
+        String body = "{\"requestId\": 7, \"merchantName\": \"WALGREENS\", \"address\": \"4433 DEWEY AVE\", "
+            + "\"postalCode\": \"14616\"}\n{\"requestId\": 8, \"merchantName\": \"NOPE\"}\n";
+
+        String result = webTestClient.post().uri("/solution/stream")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = result.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"requestId\":7") && lines[0].contains(DEWEY_LOCATION_ID.toString()));
+        assertTrue(lines[1].contains("\"requestId\":8") && lines[1].contains("detail"));
+    }
+
+    @Test
+    public void testSolutionRouteRejectsEmptyBody() {
+        webTestClient.post().uri("/solution/")
+            .contentType(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.detail").exists();
+    }
+
+    @Test
+    public void testStreamRouteWritesErrorLineForUnboundRecordAndContinues() {
+        String body = "{\"requestId\": 1, \"merchantName\": {\"not\": \"a string\"}}\n"
+            + "{\"requestId\": 2, \"merchantName\": \"WALGREENS\", \"address\": \"4433 DEWEY AVE\", "
+            + "\"postalCode\": \"14616\"}\n";
+
+        String result = webTestClient.post().uri("/solution/stream")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = result.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"requestId\":1") && lines[0].contains("\"error\""));
+        assertTrue(lines[1].contains("\"requestId\":2") && lines[1].contains(DEWEY_LOCATION_ID.toString()));
+    }
+
+    @Test
+    public void testStreamRouteEndsWithErrorLineOnMalformedJson() {
+        String body = "{\"requestId\": 1, \"merchantName\": \"NOPE\"}\n{\"requestId\": 2, \"merchantName\": \n";
+
+        String result = webTestClient.post().uri("/solution/stream")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = result.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"requestId\":1") && lines[0].contains("detail"));
+        assertTrue(lines[1].contains("\"error\""));
+    }
+}
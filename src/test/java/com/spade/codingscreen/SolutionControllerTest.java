@@ -1,70 +1,329 @@
 package com.spade.codingscreen;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spade.codingscreen.dto.MerchantRequest;
+import com.spade.codingscreen.matching.MatchEvent;
+import com.spade.codingscreen.matching.MatchIndexService;
+import com.spade.codingscreen.matching.MatchStage;
+import com.spade.codingscreen.matching.SlowMatchEvent;
+import com.spade.codingscreen.model.Corporation;
+import com.spade.codingscreen.model.Countries;
+import com.spade.codingscreen.model.Location;
+import com.spade.codingscreen.repository.CorporationRepository;
+import com.spade.codingscreen.repository.LocationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Tests for the SolutionController endpoint.
- * Equivalent to test_solution_endpoint_returns_stub_response in Python.
  */
-@SpringBootTest
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,metrics,matchrecording")
 @AutoConfigureMockMvc
 public class SolutionControllerTest {
 
+    private static final UUID WALGREENS_CORP_ID = UUID.fromString("8eec1cf5-856a-48d5-80f7-1251a86a427e");
+    private static final UUID DEWEY_LOCATION_ID = UUID.fromString("4b22ad83-85d6-3144-898b-d27040118adc");
+    private static final UUID LAKE_LOCATION_ID = UUID.fromString("1d7f2a4c-3b7e-4f55-9a63-1f2e8c0a6b11");
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CorporationRepository corporationRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private MatchIndexService matchIndexService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        locationRepository.deleteAll();
+        corporationRepository.deleteAll();
+
+        Corporation walgreens = new Corporation(WALGREENS_CORP_ID, "Walgreen Co.", "Walgreens", "https://walgreens.com");
+        corporationRepository.save(walgreens);
+
+        locationRepository.save(new Location(DEWEY_LOCATION_ID, "Walgreens", "4433 Dewey Ave", null, null,
+            "Rochester", "NY", Countries.USA, "14616", "19978", 43.2, -77.6, null, walgreens));
+        locationRepository.save(new Location(LAKE_LOCATION_ID, "Walgreens", "1525 Lake Ave", null, null,
+            "Rochester", "NY", Countries.USA, "14615", "12345", 43.2, -77.6, null, walgreens));
+
+        matchIndexService.refresh();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        locationRepository.deleteAll();
+        corporationRepository.deleteAll();
+        matchIndexService.refresh();
+    }
+
     @Test
-    public void testSolutionEndpointReturnsStubResponse() throws Exception {
-        MerchantRequest request = new MerchantRequest();
-        request.setMerchantName("Test Merchant");
-        request.setAddress("123 Test St");
-        request.setCity("Test City");
-        request.setRegion("TX");
-        request.setPostalCode("12345");
+    public void testSolutionEndpointReturnsMatchedLocationAndCorporation() throws Exception {
+        MerchantRequest request = new MerchantRequest("WALGREENS #19978", "4433 Dewey Ave", "Rochester", "NY", "14616");
 
         mockMvc.perform(post("/solution/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$.detail").value("solution endpoint stub"))
-            .andExpect(jsonPath("$.echo.merchantName").value("Test Merchant"))
-            .andExpect(jsonPath("$.echo.address").value("123 Test St"))
-            .andExpect(jsonPath("$.echo.city").value("Test City"))
-            .andExpect(jsonPath("$.echo.region").value("TX"))
-            .andExpect(jsonPath("$.echo.postalCode").value("12345"));
+            .andExpect(jsonPath("$.location.id").value(DEWEY_LOCATION_ID.toString()))
+            .andExpect(jsonPath("$.location.name").value("Walgreens"))
+            .andExpect(jsonPath("$.corporation.id").value(WALGREENS_CORP_ID.toString()))
+            .andExpect(jsonPath("$.corporation.legal_name").value("Walgreen Co."))
+            .andExpect(jsonPath("$.corporation.doing_business_as").value("Walgreens"));
     }
 
     @Test
-    public void testSolutionEndpointWithExampleRequest() throws Exception {
-        // Test with the example payload from Python tests
+    public void testSolutionEndpointReturnsNotFoundWhenNothingMatches() throws Exception {
         String payload = "{\"exampleRequest\": \"example\"}";
 
-        MvcResult result = mockMvc.perform(post("/solution/")
+        mockMvc.perform(post("/solution/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(payload))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.detail").exists());
+    }
+
+    @Test
+    public void testSolutionEndpointRecordsEveryStage() throws Exception {
+        Map<MatchStage, Long> before = new EnumMap<>(MatchStage.class);
+        for (MatchStage stage : MatchStage.values()) {
+            before.put(stage, stageTimer(stage).count());
+        }
+        // A name no earlier test used, so the request misses the result cache and is matched.
+        MerchantRequest request = new MerchantRequest("WALGREENS " + UUID.randomUUID(), "1525 Lake Ave", "Rochester",
+            "NY", "14615");
+
+        mockMvc.perform(post("/solution/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk());
+
+        for (MatchStage stage : MatchStage.values()) {
+            assertEquals(before.get(stage) + 1, stageTimer(stage).count(), stage.getTagValue());
+        }
+        // Index builds read the database on their own timer, outside the request stages
+        assertTrue(meterRegistry.get("matching.index.build").tag("phase", "db").timer().count() > 0);
+        assertTrue(stageTimer(MatchStage.SCORING).takeSnapshot().percentileValues().length > 0);
+    }
+
+    @Test
+    public void testBatchEndpointPreservesOrderAndReturnsNullForMisses() throws Exception {
+        MerchantRequest dewey = new MerchantRequest("WALGREENS #19978", "4433 Dewey Ave", "Rochester", "NY", "14616");
+        MerchantRequest lake = new MerchantRequest("WALGREENS", "1525 LAKE AVE", "ROCHESTER", "NY", "14615");
+        MerchantRequest unknown = new MerchantRequest("NOPE", null, null, null, null);
+        long serialized = stageTimer(MatchStage.SERIALIZE).count();
+
+        mockMvc.perform(post("/solution/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(lake, dewey, unknown, lake))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$[0].location.id").value(LAKE_LOCATION_ID.toString()))
+            .andExpect(jsonPath("$[1].location.id").value(DEWEY_LOCATION_ID.toString()))
+            .andExpect(jsonPath("$[2]").value(nullValue()))
+            .andExpect(jsonPath("$[3].location.id").value(LAKE_LOCATION_ID.toString()));
+        assertEquals(serialized + 1, stageTimer(MatchStage.SERIALIZE).count());
+    }
+
+    @Test
+    public void testBatchEndpointRejectsNullRequestsAndOversizedBatches() throws Exception {
+        mockMvc.perform(post("/solution/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[null]"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.detail").exists());
+
+        MerchantRequest lake = new MerchantRequest("WALGREENS", "1525 LAKE AVE", "ROCHESTER", "NY", "14615");
+        mockMvc.perform(post("/solution/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Collections.nCopies(1001, lake))))
+            .andExpect(status().isPayloadTooLarge())
+            .andExpect(jsonPath("$.detail").exists());
+    }
+
+    @Test
+    public void testStreamEndpointWritesOneLinePerRecordWithRequestIds() throws Exception {
+        String body = "{\"requestId\": \"a\", \"merchantName\": \"WALGREENS\", \"address\": \"1525 LAKE AVE\", "
+            + "\"city\": \"ROCHESTER\", \"region\": \"NY\", \"postalCode\": \"14615\"}\n"
+            + "{\"requestId\": 2, \"merchantName\": \"NOPE\"}\n"
+            + "{\"merchantName\": \"WALGREENS #19978\", \"address\": \"4433 Dewey Ave\", \"postalCode\": \"14616\"}\n";
+
+        String result = mockMvc.perform(post("/solution/stream")
+                .contentType("application/x-ndjson")
+                .content(body))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$.detail").value("solution endpoint stub"))
-            .andReturn();
+            .andReturn().getResponse().getContentAsString();
 
-        // Verify response contains echo of input
-        String responseBody = result.getResponse().getContentAsString();
-        assertEquals(true, responseBody.contains("echo"));
+        String[] lines = result.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("a", objectMapper.readTree(lines[0]).path("requestId").asText());
+        assertEquals(LAKE_LOCATION_ID.toString(), objectMapper.readTree(lines[0]).path("location").path("id").asText());
+        assertEquals(2, objectMapper.readTree(lines[1]).path("requestId").asInt());
+        assertTrue(objectMapper.readTree(lines[1]).has("detail"));
+        assertEquals(DEWEY_LOCATION_ID.toString(), objectMapper.readTree(lines[2]).path("location").path("id").asText());
     }
-}
 
+    @Test
+    public void testStreamEndpointWritesErrorLineForUnboundRecordAndContinues() throws Exception {
+        String body = "{\"requestId\": 1, \"merchantName\": {\"not\": \"a string\"}}\n"
+            + "{\"requestId\": 2, \"merchantName\": \"WALGREENS #19978\", \"address\": \"4433 Dewey Ave\", "
+            + "\"postalCode\": \"14616\"}\n"
+            + "{\"requestId\": 3, \"merchantName\": \n";
+
+        String result = mockMvc.perform(post("/solution/stream")
+                .contentType("application/x-ndjson")
+                .content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = result.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(1, objectMapper.readTree(lines[0]).path("requestId").asInt());
+        assertTrue(objectMapper.readTree(lines[0]).has("error"));
+        assertEquals(DEWEY_LOCATION_ID.toString(), objectMapper.readTree(lines[1]).path("location").path("id").asText());
+        assertTrue(objectMapper.readTree(lines[2]).has("error"));
+    }
+
+    @Test
+    public void testAdminReloadPublishesNewData() throws Exception {
+        Corporation walgreens = corporationRepository.findById(WALGREENS_CORP_ID).orElseThrow();
+        UUID ridgeId = UUID.randomUUID();
+        locationRepository.save(new Location(ridgeId, "Walgreens", "2150 Ridge Rd W", null, null,
+            "Rochester", "NY", Countries.USA, "14626", null, 43.2, -77.7, null, walgreens));
+        MerchantRequest request = new MerchantRequest("WALGREENS", "2150 RIDGE RD W", "ROCHESTER", "NY", "14626");
+
+        mockMvc.perform(post("/solution/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(jsonPath("$.location.id").value(not(ridgeId.toString())));
+
+        mockMvc.perform(post("/admin/reload").param("wait", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.locations").value(3));
+
+        mockMvc.perform(post("/solution/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.location.id").value(ridgeId.toString()));
+    }
+
+    @Test
+    public void testRecordingEndpointCapturesOnlyMatchEvents() throws Exception {
+        String merchantName = "WALGREENS " + UUID.randomUUID();
+        MerchantRequest request = new MerchantRequest(merchantName, "4433 Dewey Ave", "Rochester", "NY", "14616");
+
+        mockMvc.perform(post("/actuator/matchrecording")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"slowMs\": \"abc\"}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/actuator/matchrecording")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"slowMs\": 0}"))
+            .andExpect(status().isOk());
+        mockMvc.perform(post("/actuator/matchrecording")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+            .andExpect(status().isConflict());
+        mockMvc.perform(post("/solution/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk());
+        byte[] recording = mockMvc.perform(delete("/actuator/matchrecording"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        mockMvc.perform(delete("/actuator/matchrecording"))
+            .andExpect(status().isNotFound());
+
+        Path file = Files.createTempFile("match-events", ".jfr");
+        try {
+            Files.write(file, recording);
+            // No JDK events such as environment variables or system properties
+            assertTrue(RecordingFile.readAllEvents(file).stream().map(event -> event.getEventType().getName())
+                .allMatch(name -> name.equals(MatchEvent.NAME) || name.equals(SlowMatchEvent.NAME)));
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.hasField("merchantName") && merchantName.equals(event.getString("merchantName")))
+                .toList();
+            RecordedEvent match = events.stream()
+                .filter(event -> event.getEventType().getName().equals(MatchEvent.NAME)).findFirst().orElseThrow();
+            assertEquals("fuzzy", match.getString("tier"));
+            assertTrue(match.getInt("candidates") > 0);
+            assertTrue(match.getDouble("bestScore") >= 60.0);
+            assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals(SlowMatchEvent.NAME)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testExplainReturnsRankedCandidatesWithFeatureScores() throws Exception {
+        MerchantRequest request = new MerchantRequest("WALGREENS", "4433 DEWEY AVE", "ROCHESTER", "NY", "14616");
+
+        mockMvc.perform(post("/solution/")
+                .param("explain", "true")
+                .param("k", "3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.location.id").value(DEWEY_LOCATION_ID.toString()))
+            .andExpect(jsonPath("$.tier").value("exact_key"))
+            .andExpect(jsonPath("$.candidates.length()").value(1))
+            .andExpect(jsonPath("$.candidates[0].features.name").value(100))
+            .andExpect(jsonPath("$.candidates[0].features.postal_code").value(100));
+
+        MerchantRequest elsewhere = new MerchantRequest("WALGREENS", "900 MONROE AVE", "ROCHESTER", "NY", "14620");
+        String body = mockMvc.perform(post("/solution/")
+                .param("explain", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(elsewhere)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tier").value("fuzzy"))
+            .andExpect(jsonPath("$.candidates.length()").value(2))
+            .andReturn().getResponse().getContentAsString();
+
+        JsonNode candidates = objectMapper.readTree(body).path("candidates");
+        assertEquals(objectMapper.readTree(body).path("location").path("id"), candidates.get(0).path("location").path("id"));
+        assertTrue(candidates.get(0).path("score").asDouble() >= candidates.get(1).path("score").asDouble());
+    }
+
+    private Timer stageTimer(MatchStage stage) {
+        return meterRegistry.get("matching.stage").tag("stage", stage.getTagValue()).timer();
+    }
+}